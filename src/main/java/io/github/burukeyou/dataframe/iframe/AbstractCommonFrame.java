@@ -9,6 +9,7 @@ import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 @Getter
 public abstract class AbstractCommonFrame<T> implements IFrame<T> {
@@ -20,6 +21,11 @@ public abstract class AbstractCommonFrame<T> implements IFrame<T> {
     protected int defaultScale = 2;
     protected RoundingMode defaultRoundingMode = RoundingMode.HALF_UP;
 
+    /**
+     * the pool to run the parallel operation, null means run in the current thread
+     */
+    protected ForkJoinPool parallelPool;
+
     protected int getOldRoundingMode(){
             switch (defaultRoundingMode){
                 case UP:
@@ -47,9 +53,14 @@ public abstract class AbstractCommonFrame<T> implements IFrame<T> {
         this.defaultRoundingMode = roundingMode;
     }
 
+    protected void initParallel(ForkJoinPool pool){
+        this.parallelPool = pool;
+    }
+
     protected  void transmitMember(AbstractCommonFrame<?> from, AbstractCommonFrame<?> toFrame) {
         toFrame.defaultScale = from.defaultScale;
         toFrame.defaultRoundingMode = from.defaultRoundingMode;
+        toFrame.parallelPool = from.parallelPool;
     }
 
     protected String[][] buildPrintDataArr(int limit) {
@@ -5,18 +5,29 @@ import io.github.burukeyou.dataframe.iframe.function.ReplenishFunction;
 import io.github.burukeyou.dataframe.iframe.item.FI2;
 import io.github.burukeyou.dataframe.iframe.item.FI3;
 import io.github.burukeyou.dataframe.iframe.item.FI4;
+import io.github.burukeyou.dataframe.iframe.support.Agg;
+import io.github.burukeyou.dataframe.iframe.support.BloomOption;
 import io.github.burukeyou.dataframe.iframe.support.Join;
 import io.github.burukeyou.dataframe.iframe.support.JoinOn;
 import io.github.burukeyou.dataframe.iframe.support.MaxMin;
 import io.github.burukeyou.dataframe.util.CollectorsPlusUtil;
 import io.github.burukeyou.dataframe.util.FrameUtil;
+import io.github.burukeyou.dataframe.util.GroupTable;
+import io.github.burukeyou.dataframe.util.HyperLogLog;
+import io.github.burukeyou.dataframe.util.JoinUtil;
 import io.github.burukeyou.dataframe.util.ListUtils;
+import io.github.burukeyou.dataframe.util.MathUtils;
+import io.github.burukeyou.dataframe.util.MaxMinAccumulator;
+import io.github.burukeyou.dataframe.util.NumberAccumulator;
+import io.github.burukeyou.dataframe.util.Quantiles;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigDecimal;
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collector;
 import java.util.stream.Stream;
 
@@ -130,6 +141,22 @@ public abstract class AbstractDataFrameImpl<T> extends AbstractWindowDataFrame<T
         return stream().filter(e -> !set.contains(function.apply(e)));
     }
 
+    public <K, V> Stream<T> whereExistsStream(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey) {
+        Set<V> keySet = JoinUtil.buildKeySet(other.toLists(), otherKey);
+        return stream().filter(e -> {
+            V v = key.apply(e);
+            return v != null && keySet.contains(v);
+        });
+    }
+
+    public <K, V> Stream<T> whereNotExistsStream(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey) {
+        Set<V> keySet = JoinUtil.buildKeySet(other.toLists(), otherKey);
+        return stream().filter(e -> {
+            V v = key.apply(e);
+            return v == null || !keySet.contains(v);
+        });
+    }
+
 
     public <R> Stream<T> whereEqStream(Function<T, R> function, R value) {
         return stream().filter(e -> value.equals(function.apply(e)));
@@ -177,80 +204,92 @@ public abstract class AbstractDataFrameImpl<T> extends AbstractWindowDataFrame<T
      * ===========================   汇总相关  =====================================
      **/
     public <R> BigDecimal sum(Function<T, R> function) {
-        return stream().map(function).filter(Objects::nonNull).collect(CollectorsPlusUtil.summingBigDecimal(e -> {
-            if (e instanceof BigDecimal) {
-                return (BigDecimal) e;
-            } else {
-                return new BigDecimal(String.valueOf(e));
-            }
-        }));
+        return sumAccumulator(function).getSum();
     }
 
     public <R> BigDecimal avg(Function<T, R> function) {
-        List<BigDecimal> bigDecimalList = stream().map(function).filter(Objects::nonNull).map(e -> {
-            if (e instanceof BigDecimal) {
-                return (BigDecimal) e;
-            } else {
-                return new BigDecimal(String.valueOf(e));
-            }
-        }).collect(toList());
+        return sumAccumulator(function).getAvg(defaultScale, defaultRoundingMode);
+    }
 
-        if (bigDecimalList.isEmpty()) {
-            return null;
-        }
-        return bigDecimalList.stream()
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .divide(BigDecimal.valueOf(bigDecimalList.size()), defaultScale, defaultRoundingMode);
+    public long sumLong(ToLongFunction<T> function) {
+        return stream().mapToLong(function).reduce(0L, Math::addExact);
+    }
+
+    public double sumDouble(ToDoubleFunction<T> function) {
+        return stream().mapToDouble(function).sum();
+    }
+
+    public Double avgDouble(ToDoubleFunction<T> function) {
+        OptionalDouble average = stream().mapToDouble(function).average();
+        return average.isPresent() ? average.getAsDouble() : null;
+    }
+
+    /**
+     * 整数按long累加, 最后才转换成BigDecimal
+     */
+    protected <R> NumberAccumulator sumAccumulator(Function<T, R> function) {
+        NumberAccumulator accumulator = new NumberAccumulator();
+        stream().forEachOrdered(e -> accumulator.add(function.apply(e)));
+        return accumulator;
     }
 
     public <R extends Comparable<? super R>> MaxMin<R> maxMinValue(Function<T, R> function) {
-        MaxMin<T> maxAndMin = maxMin(function);
-        return new MaxMin<>(getApplyValue(function,maxAndMin.getMax()), getApplyValue(function,maxAndMin.getMin()));
+        return maxMinAccumulator(function, true).toMaxMinValue();
     }
 
     public <R extends Comparable<? super R>> MaxMin<T> maxMin(Function<T, R> function) {
-        List<T> itemList = stream().filter(e -> e != null && function.apply(e) != null).collect(toList());
-        if (itemList.isEmpty()){
-            return new MaxMin<>(null,null);
-        }
-        T max = itemList.get(0);
-        T min = itemList.get(0);
-        for (int i = 1; i < itemList.size(); i++) {
-            T cur = itemList.get(i);
-            R curValue = function.apply(cur);
-            R maxValue = function.apply(max);
-            R minValue = function.apply(min);
-            if (curValue.compareTo(maxValue) >= 0) {
-                max = cur;
-            }
-            if (curValue.compareTo(minValue) <= 0) {
-                min = cur;
-            }
-        }
-        return new MaxMin<>(max, min);
+        // 相等时取后面的元素
+        return maxMinAccumulator(function, true).toMaxMin();
     }
 
     public <R extends Comparable<? super R>> R maxValue(Function<T, R> function) {
-        Optional<R> value = stream().map(function).filter(Objects::nonNull).max(Comparator.comparing(e -> e));
-        return value.orElse(null);
+        return maxMinAccumulator(function, false).getMaxValue();
     }
 
 
     public <R extends Comparable<R>> T max(Function<T, R> function) {
-        Optional<T> max = stream().filter(e -> function.apply(e) != null).max(Comparator.comparing(function));
-        return max.orElse(null);
+        return maxMinAccumulator(function, false).getMax();
     }
 
 
     public <R extends Comparable<? super R>> R minValue(Function<T, R> function) {
-        Optional<R> value = stream().map(function).filter(Objects::nonNull).min(Comparator.comparing(e -> e));
-        return value.orElse(null);
+        return maxMinAccumulator(function, false).getMinValue();
     }
 
 
     public <R extends Comparable<R>> T min(Function<T, R> function) {
-        Optional<T> min = stream().filter(e -> function.apply(e) != null).min(Comparator.comparing(function));
-        return min.orElse(null);
+        return maxMinAccumulator(function, false).getMin();
+    }
+
+    /**
+     * 一次遍历求最大最小值, 缓存当前最大最小值每行只计算一次function
+     */
+    protected <R extends Comparable<? super R>> MaxMinAccumulator<T, R> maxMinAccumulator(Function<T, R> function, boolean lastOnTie) {
+        return collect(CollectorsPlusUtil.maxMinBy(function, lastOnTie));
+    }
+
+    public <R> List<Double> quantile(Function<T, R> function, double... quantiles) {
+        return collect(CollectorsPlusUtil.quantile(function, quantiles));
+    }
+
+    public <R> List<Double> quantileExact(Function<T, R> function, double... quantiles) {
+        for (double quantile : quantiles) {
+            Quantiles.checkQuantile(quantile);
+        }
+        double[] values = stream().map(function).filter(Objects::nonNull).mapToDouble(MathUtils::toDouble).toArray();
+        List<Double> result = new ArrayList<>(quantiles.length);
+        for (double quantile : quantiles) {
+            result.add(values.length == 0 ? null : Quantiles.select(values, values.length, quantile));
+        }
+        return result;
+    }
+
+    public <R> long approxCountDistinct(Function<T, R> function, int precision) {
+        return collect(CollectorsPlusUtil.hyperLogLog(function, precision)).cardinality();
+    }
+
+    public <R> long approxCountDistinct(Function<T, R> function) {
+        return approxCountDistinct(function, HyperLogLog.DEFAULT_PRECISION);
     }
 
     public long count() {
@@ -259,7 +298,7 @@ public abstract class AbstractDataFrameImpl<T> extends AbstractWindowDataFrame<T
 
 
     protected  <K> List<FI2<K, List<T>>> groupKey(Function<T, K> K) {
-        return FrameUtil.toListFI2(stream().collect(groupingBy(K)));
+        return FrameUtil.toListFI2(collect(groupingBy(K)));
     }
 
     /**
@@ -269,7 +308,7 @@ public abstract class AbstractDataFrameImpl<T> extends AbstractWindowDataFrame<T
      * @param tBigDecimalCollector 聚合方式
      */
     protected  <K, V> List<FI2<K, V>> groupKey(Function<T, K> K, Collector<T, ?, V> tBigDecimalCollector) {
-        Map<K, V> resultMap = stream().collect(groupingBy(K, tBigDecimalCollector));
+        Map<K, V> resultMap = collect(groupingBy(K, tBigDecimalCollector));
         return FrameUtil.toListFI2(resultMap);
     }
 
@@ -281,8 +320,12 @@ public abstract class AbstractDataFrameImpl<T> extends AbstractWindowDataFrame<T
      * @param tBigDecimalCollector 聚合方式
      */
     protected <K, J, V> List<FI3<K, J, V>> groupKey(Function<T, K> K, Function<T, J> J, Collector<T, ?, V> tBigDecimalCollector) {
-        Map<K, Map<J, V>> map = stream().collect(groupingBy(K, groupingBy(J, tBigDecimalCollector)));
-        return FrameUtil.toListFI3(map);
+        GroupTable<V> table = groupTable(K, J, null, tBigDecimalCollector);
+        List<FI3<K, J, V>> result = new ArrayList<>(table.size());
+        for (int i = 0; i < table.size(); i++) {
+            result.add(new FI3<>(table.getKey1(i), table.getKey2(i), table.getValue(i)));
+        }
+        return result;
     }
 
     /**
@@ -294,47 +337,102 @@ public abstract class AbstractDataFrameImpl<T> extends AbstractWindowDataFrame<T
      * @param collectorType 聚合方式
      */
     protected <K, J, H, V> List<FI4<K, J, H, V>> groupKey(Function<T, K> K, Function<T, J> J, Function<T, H> H, Collector<T, ?, V> collectorType) {
-        Map<K, Map<J, Map<H, V>>> map = stream().collect(groupingBy(K, groupingBy(J, groupingBy(H, collectorType))));
-        return FrameUtil.toListFI4(map);
+        GroupTable<V> table = groupTable(K, J, H, collectorType);
+        List<FI4<K, J, H, V>> result = new ArrayList<>(table.size());
+        for (int i = 0; i < table.size(); i++) {
+            result.add(new FI4<>(table.getKey1(i), table.getKey2(i), table.getKey3(i), table.getValue(i)));
+        }
+        return result;
+    }
+
+    /**
+     * 多级分组, 多个分组key作为一个组合key放到同一个hash表中, 不用每个分组都创建一个内层Map
+     */
+    protected <V> GroupTable<V> groupTable(Function<T, ?> K, Function<T, ?> J, Function<T, ?> H, Collector<T, ?, V> collector) {
+        return collect(CollectorsPlusUtil.groupingByKeys(K, J, H, collector));
+    }
+
+    /**
+     * 设置了并行时在ForkJoinPool上并行聚合, 每个线程先聚合自己的部分, 最后用Collector的combiner按顺序合并
+     */
+    protected <R> R collect(Collector<T, ?, R> collector) {
+        if (parallelPool == null || parallelPool.getParallelism() <= 1) {
+            return stream().collect(collector);
+        }
+        return parallelPool.submit(() -> stream().parallel().collect(collector)).join();
     }
 
 
 
 
-    protected  <K, J, V extends Comparable<V>> Map<K, Map<J, T>> groupToMap(Function<T, K> key, Function<T, J> key2,Function<List<T>, T> getListMaxFunction) {
-        return stream().collect(groupingBy(key, groupingBy(key2, collectingAndThen(toList(), getListMaxFunction))));
+    /**
+     * 一级分组, 一次遍历计算多个聚合, 每个分组只有一个累加对象
+     *
+     * @param K    一级分组K
+     * @param aggs 聚合方式
+     */
+    protected <K> List<FI2<K, List<Object>>> groupKeyAgg(Function<T, K> K, List<Agg<T, ?>> aggs) {
+        return groupKey(K, aggCollector(aggs));
     }
 
-    protected  <V extends Comparable<? super V>> Function<List<T>, T> getListMaxFunction(Function<T, V> value) {
-        return e -> e.stream().filter(a ->  value.apply(a) != null).max(Comparator.comparing(value)).orElse(null);
+    protected <K, R1, R2> List<FI3<K, R1, R2>> groupKeyAgg(Function<T, K> K, Agg<T, R1> agg, Agg<T, R2> agg2) {
+        List<FI3<K, R1, R2>> result = new ArrayList<>();
+        for (FI2<K, List<Object>> e : groupKeyAgg(K, Arrays.asList(agg, agg2))) {
+            result.add(new FI3<>(e.getC1(), aggValue(e.getC2(), 0), aggValue(e.getC2(), 1)));
+        }
+        return result;
     }
 
-    protected  <V extends Comparable<? super V>> Function<List<T>, T> getListMinFunction(Function<T, V> value) {
-        return e -> e.stream().min(Comparator.comparing(value)).orElse(null);
+    protected <K, R1, R2, R3> List<FI4<K, R1, R2, R3>> groupKeyAgg(Function<T, K> K, Agg<T, R1> agg, Agg<T, R2> agg2, Agg<T, R3> agg3) {
+        List<FI4<K, R1, R2, R3>> result = new ArrayList<>();
+        for (FI2<K, List<Object>> e : groupKeyAgg(K, Arrays.asList(agg, agg2, agg3))) {
+            result.add(new FI4<>(e.getC1(), aggValue(e.getC2(), 0), aggValue(e.getC2(), 1), aggValue(e.getC2(), 2)));
+        }
+        return result;
     }
 
-    protected <V extends Comparable<? super V>> Function<List<T>, MaxMin<V>> getListGroupMaxMinValueFunction(Function<T, V> value) {
-        return list -> {
-            if (list == null || list.isEmpty()) {
-                return null;
-            }
-            MaxMin<V> maxMin = new MaxMin<>();
-            maxMin.setMax(list.stream().max(Comparator.comparing(value)).map(value).orElse(null));
-            maxMin.setMin(list.stream().min(Comparator.comparing(value)).map(value).orElse(null));
-            return maxMin;
-        };
+    /**
+     * 二级分组, 一次遍历计算两个聚合
+     */
+    protected <K, J, R1, R2> List<FI4<K, J, R1, R2>> groupKeyAgg(Function<T, K> K, Function<T, J> J, Agg<T, R1> agg, Agg<T, R2> agg2) {
+        List<FI4<K, J, R1, R2>> result = new ArrayList<>();
+        for (FI3<K, J, List<Object>> e : groupKey(K, J, aggCollector(Arrays.asList(agg, agg2)))) {
+            result.add(new FI4<>(e.getC1(), e.getC2(), aggValue(e.getC3(), 0), aggValue(e.getC3(), 1)));
+        }
+        return result;
     }
 
-    protected <V extends Comparable<? super V>> Function<List<T>, MaxMin<T>> getListGroupMaxMinFunction(Function<T, V> value) {
-        return list -> {
-            if (list == null || list.isEmpty()) {
-                return new MaxMin<>();
-            }
-            MaxMin<T> maxMin = new MaxMin<>();
-            maxMin.setMax(list.stream().max(Comparator.comparing(value)).orElse(null));
-            maxMin.setMin(list.stream().min(Comparator.comparing(value)).orElse(null));
-            return maxMin;
-        };
+    protected Collector<T, ?, List<Object>> aggCollector(List<Agg<T, ?>> aggs) {
+        List<Collector<T, ?, ?>> collectors = new ArrayList<>(aggs.size());
+        for (Agg<T, ?> agg : aggs) {
+            collectors.add(agg.collector(defaultScale, defaultRoundingMode));
+        }
+        return CollectorsPlusUtil.multiCollector(collectors);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> R aggValue(List<Object> values, int index) {
+        return (R) values.get(index);
+    }
+
+    /**
+     * 分组内值最大的元素, 忽略值为null的元素, 每个分组只保留当前最大的元素
+     */
+    protected <V extends Comparable<? super V>> Collector<T, ?, T> groupMaxCollector(Function<T, V> value) {
+        return CollectorsPlusUtil.filtering(e -> value.apply(e) != null, CollectorsPlusUtil.maxElementBy(Comparator.comparing(value)));
+    }
+
+    protected <V extends Comparable<? super V>> Collector<T, ?, T> groupMinCollector(Function<T, V> value) {
+        return CollectorsPlusUtil.minElementBy(Comparator.comparing(value));
+    }
+
+    protected <V extends Comparable<? super V>> Collector<T, ?, MaxMin<V>> groupMaxMinValueCollector(Function<T, V> value) {
+        return collectingAndThen(CollectorsPlusUtil.maxMinElementBy(Comparator.comparing(value)),
+                e -> new MaxMin<>(getApplyValue(value, e.getMax()), getApplyValue(value, e.getMin())));
+    }
+
+    protected <V extends Comparable<? super V>> Collector<T, ?, MaxMin<T>> groupMaxMinCollector(Function<T, V> value) {
+        return CollectorsPlusUtil.maxMinElementBy(Comparator.comparing(value));
     }
 
 
@@ -358,7 +456,7 @@ public abstract class AbstractDataFrameImpl<T> extends AbstractWindowDataFrame<T
 
     @Override
     public List<String> columns() {
-        return fieldList;
+        return getFieldList();
     }
 
 
@@ -408,43 +506,59 @@ public abstract class AbstractDataFrameImpl<T> extends AbstractWindowDataFrame<T
 
 
     protected  <R, K> List<R> joinList(IFrame<K> other, JoinOn<T, K> on, Join<T, K, R> join) {
-        List<R> resultList = new ArrayList<>();
-        for (T cur :this){
-            for (K k : other) {
-                if(on.on(cur,k)){
-                    resultList.add(join.join(cur,k));
-                }
-            }
-        }
-        return resultList;
+        return JoinUtil.loopJoin(toLists(), other.toLists(), on, join, false, false);
     }
 
     protected  <R, K> List<R> leftJoinList(IFrame<K> other, JoinOn<T, K> on, Join<T, K, R> join) {
-        List<R> resultList = new ArrayList<>();
-        for (T cur :this){
-            for (K k : other) {
-                if(on.on(cur,k)){
-                    resultList.add(join.join(cur,k));
-                }else {
-                    resultList.add(join.join(cur,null));
-                }
-            }
-        }
-        return resultList;
+        return JoinUtil.loopJoin(toLists(), other.toLists(), on, join, true, false);
     }
 
     protected  <R, K> List<R> rightJoinList(IFrame<K> other, JoinOn<T, K> on, Join<T, K, R> join) {
-        List<R> resultList = new ArrayList<>();
-        for (K k : other) {
-            for (T cur :this){
-                if(on.on(cur,k)){
-                    resultList.add(join.join(cur,k));
-                }else {
-                    resultList.add(join.join(null,k));
-                }
-            }
+        // 以右边驱动, 保证结果按右边的顺序
+        return JoinUtil.loopJoin(other.toLists(), toLists(), (k, t) -> on.on(t, k), (k, t) -> join.join(t, k), true, false);
+    }
+
+    protected  <R, K> List<R> fullJoinList(IFrame<K> other, JoinOn<T, K> on, Join<T, K, R> join) {
+        return JoinUtil.loopJoin(toLists(), other.toLists(), on, join, true, true);
+    }
+
+    protected <R, K, V> List<R> joinList(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join) {
+        return hashJoinList(other, key, otherKey, join, false, false, null);
+    }
+
+    protected <R, K, V> List<R> joinList(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join, BloomOption bloomOption) {
+        return hashJoinList(other, key, otherKey, join, false, false, bloomOption);
+    }
+
+    protected <R, K, V> List<R> leftJoinList(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join) {
+        return hashJoinList(other, key, otherKey, join, true, false, null);
+    }
+
+    protected <R, K, V> List<R> leftJoinList(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join, BloomOption bloomOption) {
+        return hashJoinList(other, key, otherKey, join, true, false, bloomOption);
+    }
+
+    protected <R, K, V> List<R> rightJoinList(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join) {
+        if (parallelPool == null) {
+            return JoinUtil.hashRightJoin(toLists(), other.toLists(), key, otherKey, join);
+        }
+        // 以右边驱动, 保证结果按右边的顺序
+        return JoinUtil.parallelHashJoin(other.toLists(), toLists(), otherKey, key, (k, t) -> join.join(t, k), true, false, parallelPool);
+    }
+
+    protected <R, K, V> List<R> fullJoinList(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join) {
+        return hashJoinList(other, key, otherKey, join, true, true, null);
+    }
+
+    private <R, K, V> List<R> hashJoinList(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join, boolean keepLeft, boolean keepRight, BloomOption bloomOption) {
+        if (parallelPool == null) {
+            return JoinUtil.hashJoin(toLists(), other.toLists(), key, otherKey, join, keepLeft, keepRight, bloomOption);
         }
-        return resultList;
+        return JoinUtil.parallelHashJoin(toLists(), other.toLists(), key, otherKey, join, keepLeft, keepRight, parallelPool, bloomOption);
+    }
+
+    protected <R, K, V> List<R> mergeJoinList(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Comparator<? super V> keyComparator, Join<T, K, R> join) {
+        return JoinUtil.mergeJoin(toLists(), other.toLists(), key, otherKey, keyComparator, join);
     }
 
     @Override
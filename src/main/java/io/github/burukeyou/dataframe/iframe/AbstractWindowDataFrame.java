@@ -5,15 +5,23 @@ import io.github.burukeyou.dataframe.iframe.window.SupplierFunction;
 import io.github.burukeyou.dataframe.iframe.window.Window;
 import io.github.burukeyou.dataframe.iframe.window.WindowBuilder;
 import io.github.burukeyou.dataframe.iframe.window.round.Range;
+import io.github.burukeyou.dataframe.iframe.window.round.WindowRange;
+import io.github.burukeyou.dataframe.util.CollectorsPlusUtil;
+import io.github.burukeyou.dataframe.util.DoubleAccumulator;
 import io.github.burukeyou.dataframe.util.FieldValueList;
+import io.github.burukeyou.dataframe.util.GroupTable;
 import io.github.burukeyou.dataframe.util.ListUtils;
 import io.github.burukeyou.dataframe.util.MathUtils;
+import io.github.burukeyou.dataframe.util.PrefixSum;
+import io.github.burukeyou.dataframe.util.Quantiles;
+import io.github.burukeyou.dataframe.util.SparseTable;
 
 import java.math.BigDecimal;
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 
-import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
 
 /**
@@ -28,6 +36,12 @@ public abstract class AbstractWindowDataFrame<T> extends AbstractCommonFrame<T>{
 
     protected Window<T> window;
 
+    /**
+     * called after the data of frame is reordered in place
+     */
+    protected void onDataReordered() {
+    }
+
     protected  <V> List<FI2<T, V>> overAbject(Window<T> overParam,
                                               SupplierFunction<T,V> supplier) {
         ((WindowBuilder<T>)overParam).initDefault();
@@ -42,38 +56,141 @@ public abstract class AbstractWindowDataFrame<T> extends AbstractCommonFrame<T>{
         if (ListUtils.isEmpty(partitionList)){
             if (comparator != null){
                 windowList.sort(comparator);
+                onDataReordered();
             }
             return supplier.get(windowList);
         }
 
         // 获取每个窗口
-        List<List<T>> allWindowList = new ArrayList<>();
-        dfsFindWindow(allWindowList,windowList,partitionList,0);
-
-        for (List<T> data : allWindowList) {
+        if (overParam.isPartitionBySort()){
+            return mapWindows(sortWindows(windowList, partitionList, comparator), supplier::get);
+        }
+        return mapWindows(hashWindows(windowList, partitionList), data -> {
             if (comparator != null){
                 data.sort(comparator);
             }
-            List<FI2<T, V>> tmpList = supplier.get(data);
-            result.addAll(tmpList);
+            return supplier.get(data);
+        });
+    }
+
+    /**
+     * 对每个窗口分区计算后按分区顺序拼接结果, 设置了并行池时各分区在池中并发计算
+     */
+    protected <R> List<R> mapWindows(List<List<T>> allWindowList, Function<List<T>, List<R>> function) {
+        if (parallelPool == null || parallelPool.getParallelism() <= 1 || allWindowList.size() <= 1) {
+            List<R> result = new ArrayList<>();
+            for (List<T> data : allWindowList) {
+                result.addAll(function.apply(data));
+            }
+            return result;
         }
+        List<List<R>> windowResultList = parallelPool.submit(() -> allWindowList.parallelStream().map(function).collect(toList())).join();
+        List<R> result = new ArrayList<>();
+        for (List<R> windowResult : windowResultList) {
+            result.addAll(windowResult);
+        }
+        return result;
+    }
 
+    /**
+     * 一次遍历按组合分区键hash分组, 分区按第一次出现的顺序返回
+     */
+    protected List<List<T>> hashWindows(List<T> windowList, List<Function<T, ?>> partitionList) {
+        GroupTable<List<T>> table = new GroupTable<>();
+        int size = partitionList.size();
+        for (T t : windowList) {
+            Object key1;
+            Object key2 = null;
+            Object key3 = null;
+            if (size <= 3) {
+                key1 = partitionList.get(0).apply(t);
+                if (size > 1) {
+                    key2 = partitionList.get(1).apply(t);
+                }
+                if (size > 2) {
+                    key3 = partitionList.get(2).apply(t);
+                }
+            } else {
+                List<Object> key = new ArrayList<>(size);
+                for (Function<T, ?> partition : partitionList) {
+                    key.add(partition.apply(t));
+                }
+                key1 = key;
+            }
+            table.computeIfAbsent(key1, key2, key3, ArrayList::new).add(t);
+        }
+        List<List<T>> result = new ArrayList<>(table.size());
+        for (int i = 0; i < table.size(); i++) {
+            result.add(table.getValue(i));
+        }
         return result;
     }
 
-    protected  void dfsFindWindow(List<List<T>> result,
-                                  List<T> windowList,
-                                  List<Function<T, ?>> partitionList,
-                                  int index){
-        if (index >= partitionList.size()){
-            result.add(windowList);
-            return;
+    /**
+     * 按(分区字段, 窗口排序)整体排序一次, 再扫描相邻行找到分区边界, 每个分区已经是有序的
+     * 分区字段值只提取一次, 排序的是行下标
+     */
+    protected List<List<T>> sortWindows(List<T> windowList, List<Function<T, ?>> partitionList, Comparator<T> comparator) {
+        int size = windowList.size();
+        Object[][] keys = new Object[partitionList.size()][];
+        for (int k = 0; k < keys.length; k++) {
+            Function<T, ?> partition = partitionList.get(k);
+            Object[] column = new Object[size];
+            for (int i = 0; i < size; i++) {
+                column[i] = partition.apply(windowList.get(i));
+            }
+            keys[k] = column;
         }
-        Function<T,?> partitionBy = partitionList.get(index);
-        Map<?,List<T>> collect = windowList.stream().collect(groupingBy(partitionBy));
-        for (List<T> window : collect.values()) {
-            dfsFindWindow(result,window,partitionList,index+1);
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int compare = comparePartitionKey(keys, a, b);
+            if (compare != 0 || comparator == null) {
+                return compare;
+            }
+            return comparator.compare(windowList.get(a), windowList.get(b));
+        });
+
+        List<T> sortedList = new ArrayList<>(size);
+        for (Integer index : order) {
+            sortedList.add(windowList.get(index));
+        }
+        List<List<T>> result = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i <= size; i++) {
+            if (i == size || comparePartitionKey(keys, order[i - 1], order[i]) != 0) {
+                result.add(sortedList.subList(start, i));
+                start = i;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按分区字段依次比较两行, null排在前面
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private int comparePartitionKey(Object[][] keys, int a, int b) {
+        for (Object[] column : keys) {
+            Object x = column[a];
+            Object y = column[b];
+            if (x == y) {
+                continue;
+            }
+            if (x == null) {
+                return -1;
+            }
+            if (y == null) {
+                return 1;
+            }
+            int compare = ((Comparable) x).compareTo(y);
+            if (compare != 0) {
+                return compare;
+            }
         }
+        return 0;
     }
 
     protected List<FI2<T, Integer>> windowFunctionForRowNumber(Window<T> overParam) {
@@ -113,6 +230,27 @@ public abstract class AbstractWindowDataFrame<T> extends AbstractCommonFrame<T>{
         return overAbject(overParam,supplier);
     }
 
+    /**
+     * 截取每个窗口内排名前n的数据, 不对整个窗口排序也不生成排名
+     */
+    protected List<T> windowFunctionForCutFirstRank(Window<T> overParam, int n) {
+        ((WindowBuilder<T>)overParam).initDefault();
+        checkWindow(overParam);
+        List<T> result = new ArrayList<>();
+        List<T> windowList = toLists();
+        if (n <= 0 || ListUtils.isEmpty(windowList)){
+            return result;
+        }
+
+        Comparator<T> comparator = overParam.getComparator();
+        List<Function<T,?>> partitionList = overParam.partitions();
+        if (ListUtils.isEmpty(partitionList)){
+            return windowList.stream().collect(CollectorsPlusUtil.rankLimit(comparator, n));
+        }
+
+        return mapWindows(hashWindows(windowList, partitionList), data -> data.stream().collect(CollectorsPlusUtil.rankLimit(comparator, n)));
+    }
+
     protected List<FI2<T, Integer>> windowFunctionForDenseRank(Window<T> overParam) {
         checkWindow(overParam);
 
@@ -318,13 +456,77 @@ public abstract class AbstractWindowDataFrame<T> extends AbstractCommonFrame<T>{
         return Range.START_ROW.equals(overParam.getStartRange()) && Range.END_ROW.equals(overParam.getEndRange());
     }
 
+    /**
+     * 窗口两端都是固定的或者随当前行逐行移动的, 可以滑动计算
+     */
+    public boolean isSlidingWindow(Window<T> overParam){
+        WindowRange startRange = overParam.getStartRange();
+        WindowRange endRange = overParam.getEndRange();
+        return (startRange.isFixedStartIndex() || startRange.isSlidingByRow())
+                && (endRange.isFixedEndIndex() || endRange.isSlidingByRow());
+    }
+
+    /**
+     * 每行窗口范围的起始下标, 截断到分区内
+     */
+    protected int[] getRangeStarts(Window<T> overParam, List<T> windowList){
+        int[] indexes = overParam.getStartRange().getStartIndexes(windowList);
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = Math.max(indexes[i], 0);
+        }
+        return indexes;
+    }
+
+    /**
+     * 每行窗口范围的结束下标, 截断到分区内
+     */
+    protected int[] getRangeEnds(Window<T> overParam, List<T> windowList){
+        int[] indexes = overParam.getEndRange().getEndIndexes(windowList);
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = Math.min(indexes[i], windowList.size() - 1);
+        }
+        return indexes;
+    }
+
+    /**
+     * 按下标范围查询的聚合, 范围为空时 from > to
+     */
+    protected interface RangeQuery<V> {
+        V query(int from, int to);
+    }
+
+    /**
+     * 每行按窗口范围直接查询, 不要求窗口范围单调移动
+     */
+    protected <V> List<FI2<T, V>> rangeWindow(List<T> nums, Window<T> overParam, RangeQuery<V> rangeQuery) {
+        int[] starts = getRangeStarts(overParam, nums);
+        int[] ends = getRangeEnds(overParam, nums);
+        List<FI2<T, V>> dataList = new ArrayList<>(nums.size());
+        for (int i = 0; i < nums.size(); i++) {
+            dataList.add(new FI2<>(nums.get(i), rangeQuery.query(starts[i], ends[i])));
+        }
+        return dataList;
+    }
+
+    private <F> PrefixSum prefixSum(List<T> nums, Function<T, F> field) {
+        BigDecimal[] values = new BigDecimal[nums.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getBigDecimalValue(nums.get(i), field);
+        }
+        return new PrefixSum(values);
+    }
+
     protected <F> List<FI2<T, BigDecimal>> windowFunctionForSum(Window<T> overParam, Function<T, F> field) {
         SupplierFunction<T,BigDecimal> supplier = (windowList) -> {
             if (isAllRow(overParam)){
                 BigDecimal value = SDFrame.read(windowList).sum(field);
                 return windowList.stream().map(e -> new FI2<>(e,value)).collect(toList());
             }
-            return slidingWindowSum(windowList,overParam,field);
+            if (isSlidingWindow(overParam)){
+                return slidingWindowSum(windowList,overParam,field);
+            }
+            PrefixSum prefixSum = prefixSum(windowList, field);
+            return rangeWindow(windowList, overParam, prefixSum::sum);
         };
         return overAbject(overParam,supplier);
     }
@@ -374,11 +576,7 @@ public abstract class AbstractWindowDataFrame<T> extends AbstractCommonFrame<T>{
         if (apply == null){
             return BigDecimal.ZERO;
         }
-        if (apply instanceof BigDecimal) {
-            return (BigDecimal) apply;
-        } else {
-            return new BigDecimal(String.valueOf(apply));
-        }
+        return MathUtils.toBigDecimal(apply);
     }
 
     protected <F> List<FI2<T, BigDecimal>> windowFunctionForAvg(Window<T> overParam, Function<T, F> field) {
@@ -389,8 +587,12 @@ public abstract class AbstractWindowDataFrame<T> extends AbstractCommonFrame<T>{
                         .avg(field);
                 return windowList.stream().map(e -> new FI2<>(e,value)).collect(toList());
             }
-
-            return slidingWindowAvg(windowList,overParam,field);
+            if (isSlidingWindow(overParam)){
+                return slidingWindowAvg(windowList,overParam,field);
+            }
+            PrefixSum prefixSum = prefixSum(windowList, field);
+            return rangeWindow(windowList, overParam, (from, to) ->
+                    MathUtils.divide(prefixSum.sum(from, to), new BigDecimal(Math.max(to - from + 1, 0)), defaultScale, defaultRoundingMode));
         };
         return overAbject(overParam,supplier);
     }
@@ -439,6 +641,206 @@ public abstract class AbstractWindowDataFrame<T> extends AbstractCommonFrame<T>{
         return dataList;
     }
 
+    protected <F> List<FI2<T, Double>> windowFunctionForQuantile(Window<T> overParam, Function<T, F> field, double quantile) {
+        Quantiles.checkQuantile(quantile);
+        SupplierFunction<T,Double> supplier = (windowList) -> {
+            if (isAllRow(overParam)){
+                Double value = SDFrame.read(windowList).quantileExact(field, quantile).get(0);
+                return windowList.stream().map(e -> new FI2<>(e,value)).collect(toList());
+            }
+            return slidingWindowQuantile(windowList,overParam,field,quantile);
+        };
+        return overAbject(overParam,supplier);
+    }
+
+    /**
+     * 滑动窗口内的值保持有序, 窗口移动时只插入进入的值和删除离开的值
+     */
+    public <F> List<FI2<T, Double>> slidingWindowQuantile(List<T> nums, Window<T> overParam, Function<T, F> field, double quantile) {
+        Double[] values = new Double[nums.size()];
+        for (int i = 0; i < nums.size(); i++) {
+            values[i] = MathUtils.toDouble(field.apply(nums.get(i)));
+        }
+        double[] sorted = new double[nums.size()];
+        int[] size = new int[1];
+        return slidingWindow(nums, overParam, new SlidingAccumulator<Double>() {
+            @Override
+            public void add(int index) {
+                if (values[index] != null) {
+                    int position = Arrays.binarySearch(sorted, 0, size[0], values[index]);
+                    position = position < 0 ? ~position : position;
+                    System.arraycopy(sorted, position, sorted, position + 1, size[0] - position);
+                    sorted[position] = values[index];
+                    size[0]++;
+                }
+            }
+
+            @Override
+            public void remove(int index) {
+                if (values[index] != null) {
+                    int position = Arrays.binarySearch(sorted, 0, size[0], values[index]);
+                    System.arraycopy(sorted, position + 1, sorted, position, size[0] - position - 1);
+                    size[0]--;
+                }
+            }
+
+            @Override
+            public void clear() {
+                size[0] = 0;
+            }
+
+            @Override
+            public Double get(int count) {
+                return size[0] == 0 ? null : Quantiles.sorted(sorted, size[0], quantile);
+            }
+        });
+    }
+
+    protected List<FI2<T, Long>> windowFunctionForSumLong(Window<T> overParam, ToLongFunction<T> field) {
+        return windowFunctionForLong(overParam, field, (sum, count) -> sum);
+    }
+
+    /**
+     * the average of empty window is null, the exact long sum is divided once for each row
+     */
+    protected List<FI2<T, Double>> windowFunctionForAvgLong(Window<T> overParam, ToLongFunction<T> field) {
+        return windowFunctionForLong(overParam, field, (sum, count) -> count == 0 ? null : (double) sum / count);
+    }
+
+    /**
+     * 按long累加窗口内的值, 溢出时抛出ArithmeticException
+     */
+    private <V> List<FI2<T, V>> windowFunctionForLong(Window<T> overParam, ToLongFunction<T> field, LongWindowValue<V> windowValue) {
+        SupplierFunction<T,V> supplier = (windowList) -> {
+            long[] values = new long[windowList.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = field.applyAsLong(windowList.get(i));
+            }
+            long[] sum = new long[1];
+            return slidingWindow(windowList, overParam, new SlidingAccumulator<V>() {
+                @Override
+                public void add(int index) {
+                    sum[0] = Math.addExact(sum[0], values[index]);
+                }
+
+                @Override
+                public void remove(int index) {
+                    sum[0] = Math.subtractExact(sum[0], values[index]);
+                }
+
+                @Override
+                public void clear() {
+                    sum[0] = 0;
+                }
+
+                @Override
+                public V get(int count) {
+                    return windowValue.get(sum[0], count);
+                }
+            });
+        };
+        return overAbject(overParam,supplier);
+    }
+
+    /**
+     * 由窗口内的long和与行数得到窗口的值
+     */
+    protected interface LongWindowValue<V> {
+        V get(long sum, int count);
+    }
+
+    /**
+     * @param avg               true is average, false is sum. the average of empty window is null
+     * @param compensated       use the compensated summation to reduce the error of adding and subtracting
+     */
+    protected List<FI2<T, Double>> windowFunctionForSumDouble(Window<T> overParam, ToDoubleFunction<T> field, boolean avg, boolean compensated) {
+        SupplierFunction<T,Double> supplier = (windowList) -> {
+            double[] values = new double[windowList.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = field.applyAsDouble(windowList.get(i));
+            }
+            DoubleAccumulator sum = new DoubleAccumulator(compensated);
+            return slidingWindow(windowList, overParam, new SlidingAccumulator<Double>() {
+                @Override
+                public void add(int index) {
+                    sum.add(values[index]);
+                }
+
+                @Override
+                public void remove(int index) {
+                    sum.add(-values[index]);
+                }
+
+                @Override
+                public void clear() {
+                    sum.reset();
+                }
+
+                @Override
+                public Double get(int count) {
+                    if (!avg) {
+                        return sum.getSum();
+                    }
+                    return count == 0 ? null : sum.getSum() / count;
+                }
+            });
+        };
+        return overAbject(overParam,supplier);
+    }
+
+    /**
+     * 窗口范围移动时的累加器
+     */
+    protected interface SlidingAccumulator<V> {
+
+        void add(int index);
+
+        void remove(int index);
+
+        void clear();
+
+        /**
+         * @param count         the row count of current window range
+         */
+        V get(int count);
+    }
+
+    /**
+     * 按每行的窗口范围滑动, 只把进入窗口的行加入累加器, 把离开窗口的行移除, 范围后退时才重新累加
+     */
+    protected <V> List<FI2<T, V>> slidingWindow(List<T> nums, Window<T> overParam, SlidingAccumulator<V> accumulator) {
+        int[] starts = getRangeStarts(overParam, nums);
+        int[] ends = getRangeEnds(overParam, nums);
+        // 累加器当前对应的窗口范围 [low, high]
+        int low = 0;
+        int high = -1;
+        List<FI2<T, V>> dataList = new ArrayList<>(nums.size());
+        for (int i = 0; i < nums.size(); i++) {
+            int start = starts[i];
+            int end = ends[i];
+            if (start < low || end < high) {
+                accumulator.clear();
+                low = start;
+                high = start - 1;
+            }
+            // 先移出再加入, 累加器不会经过比窗口更大的中间范围
+            while (low < start) {
+                if (low <= high) {
+                    accumulator.remove(low);
+                }
+                low++;
+            }
+            if (high < low - 1) {
+                high = low - 1;
+            }
+            while (high < end) {
+                accumulator.add(++high);
+            }
+            dataList.add(new FI2<>(nums.get(i), accumulator.get(high - low + 1)));
+        }
+        return dataList;
+    }
+
     private Integer getActualWindowSize(List<T> nums, Integer startIndex, Integer endIndex) {
         if (endIndex < 0 || startIndex >= nums.size()){
             return 0;
@@ -576,7 +978,11 @@ public abstract class AbstractWindowDataFrame<T> extends AbstractCommonFrame<T>{
                 F value = SDFrame.read(windowList).maxValue(field);
                 return windowList.stream().map(e -> new FI2<>(e,value)).collect(toList());
             }
-            return slidingWindowForMaxValue(windowList,overParam,field);
+            if (isSlidingWindow(overParam)){
+                return slidingWindowForMaxValue(windowList,overParam,field);
+            }
+            SparseTable<F> sparseTable = new SparseTable<>(windowList.stream().map(field).collect(toList()), Comparator.<F>naturalOrder());
+            return rangeWindow(windowList, overParam, sparseTable::query);
         };
         return overAbject(overParam,supplier);
     }
@@ -587,7 +993,11 @@ public abstract class AbstractWindowDataFrame<T> extends AbstractCommonFrame<T>{
                 F value = SDFrame.read(windowList).minValue(field);
                 return windowList.stream().map(e -> new FI2<>(e,value)).collect(toList());
             }
-            return slidingWindowForMinValue(windowList,overParam,field);
+            if (isSlidingWindow(overParam)){
+                return slidingWindowForMinValue(windowList,overParam,field);
+            }
+            SparseTable<F> sparseTable = new SparseTable<>(windowList.stream().map(field).collect(toList()), Comparator.<F>reverseOrder());
+            return rangeWindow(windowList, overParam, sparseTable::query);
         };
         return overAbject(overParam,supplier);
     }
@@ -598,19 +1008,7 @@ public abstract class AbstractWindowDataFrame<T> extends AbstractCommonFrame<T>{
                 int count = windowList.size();
                 return windowList.stream().map(e -> new FI2<>(e,count)).collect(toList());
             }
-            List<FI2<T, Integer>> result = new ArrayList<>();
-            for (int i = 0; i < windowList.size(); i++) {
-                FI2<Integer, Integer> indexRange = getIndexRange(overParam, i, windowList);
-                if (indexRange.getC1() <= 0){
-                    indexRange.setC1(0);
-                }
-                if (indexRange.getC2() > windowList.size() - 1){
-                    indexRange.setC2(windowList.size() - 1);
-                }
-                Integer value = indexRange.getC2() -  indexRange.getC1() + 1;
-                result.add(new FI2<>(windowList.get(i),value));
-            }
-            return result;
+            return rangeWindow(windowList, overParam, (from, to) -> Math.max(to - from + 1, 0));
         };
         return overAbject(overParam,supplier);
     }
@@ -7,6 +7,7 @@ import io.github.burukeyou.dataframe.iframe.item.FI3;
 import io.github.burukeyou.dataframe.iframe.item.FI4;
 import io.github.burukeyou.dataframe.iframe.support.*;
 import io.github.burukeyou.dataframe.iframe.window.Sorter;
+import io.github.burukeyou.dataframe.iframe.window.Window;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -14,6 +15,7 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.*;
 import java.util.stream.Stream;
 
@@ -70,6 +72,23 @@ public interface IFrame<T> extends Iterable<T> {
      */
     IFrame<T> defaultScale(int scale, RoundingMode roundingMode);
 
+    /**
+     * Run the parallel operation such as join on the common ForkJoinPool
+     */
+    IFrame<T> parallel();
+
+    /**
+     * Run the parallel operation such as join on the specified ForkJoinPool
+     *
+     * @param pool the pool to run the parallel operation
+     */
+    IFrame<T> parallel(ForkJoinPool pool);
+
+    /**
+     * Run all operation in the current thread, it is the default
+     */
+    IFrame<T> sequential();
+
     /**
      * ===========================   Frame Info =====================================
      **/
@@ -187,6 +206,206 @@ public interface IFrame<T> extends Iterable<T> {
      */
     <R, K> IFrame<R> rightJoin(IFrame<K> other, JoinOn<T, K> on);
 
+    /**
+     * inner join Frame by key
+     * the rows are connected when the key of T equals the key of K, null key never connected.
+     * it runs as a hash join that builds on the smaller frame, the cost is O(n+m)
+     *
+     * @param other    other frame
+     * @param key      the connection key of this frame
+     * @param otherKey the connection key of other frame
+     * @param join     Connection logic
+     * @param <R>      new Frame type
+     * @param <K>      other Frame type
+     * @param <V>      the connection key type
+     */
+    <R, K, V> IFrame<R> join(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join);
+
+    /**
+     * inner join Frame by key
+     * such as {@link IFrame#join(IFrame, Function, Function, Join)}, but the default Join is {@link DefaultJoin},
+     *
+     * @param other    other frame
+     * @param key      the connection key of this frame
+     * @param otherKey the connection key of other frame
+     * @param <R>      new Frame type
+     * @param <K>      other Frame type
+     * @param <V>      the connection key type
+     */
+    <R, K, V> IFrame<R> join(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey);
+
+    /**
+     * inner join Frame by key with bloom filter
+     * such as {@link IFrame#join(IFrame, Function, Function, Join)}, but a bloom filter is built with the hash table,
+     * the rows rejected by the filter skip the hash lookup, it is faster when most rows are not connected.
+     * the false positive probability and the filter size are in the bloomOption, the counters of this join are passed to its listener
+     *
+     * @param other       other frame
+     * @param key         the connection key of this frame
+     * @param otherKey    the connection key of other frame
+     * @param join        Connection logic
+     * @param bloomOption bloom filter option
+     * @param <R>         new Frame type
+     * @param <K>         other Frame type
+     * @param <V>         the connection key type
+     */
+    <R, K, V> IFrame<R> join(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join, BloomOption bloomOption);
+
+    /**
+     * left join Frame by key
+     * if no key connected, The callback value K for Join will be null， always keep T
+     *
+     * @param other    other frame
+     * @param key      the connection key of this frame
+     * @param otherKey the connection key of other frame
+     * @param join     Connection logic
+     * @param <R>      new Frame type
+     * @param <K>      other Frame type
+     * @param <V>      the connection key type
+     */
+    <R, K, V> IFrame<R> leftJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join);
+
+    /**
+     * left join Frame by key
+     * such as {@link IFrame#leftJoin(IFrame, Function, Function, Join)}, but the default Join is {@link DefaultJoin},
+     *
+     * @param other    other frame
+     * @param key      the connection key of this frame
+     * @param otherKey the connection key of other frame
+     * @param <R>      new Frame type
+     * @param <K>      other Frame type
+     * @param <V>      the connection key type
+     */
+    <R, K, V> IFrame<R> leftJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey);
+
+    /**
+     * left join Frame by key with bloom filter
+     * such as {@link IFrame#leftJoin(IFrame, Function, Function, Join)}, but a bloom filter is built with the hash table,
+     * the rows rejected by the filter skip the hash lookup, it is faster when most rows are not connected.
+     * the false positive probability and the filter size are in the bloomOption, the counters of this join are passed to its listener
+     *
+     * @param other       other frame
+     * @param key         the connection key of this frame
+     * @param otherKey    the connection key of other frame
+     * @param join        Connection logic
+     * @param bloomOption bloom filter option
+     * @param <R>         new Frame type
+     * @param <K>         other Frame type
+     * @param <V>         the connection key type
+     */
+    <R, K, V> IFrame<R> leftJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join, BloomOption bloomOption);
+
+    /**
+     * right join Frame by key
+     * if no key connected, The callback value T for Join will be null， always keep K
+     *
+     * @param other    other frame
+     * @param key      the connection key of this frame
+     * @param otherKey the connection key of other frame
+     * @param join     Connection logic
+     * @param <R>      new Frame type
+     * @param <K>      other Frame type
+     * @param <V>      the connection key type
+     */
+    <R, K, V> IFrame<R> rightJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join);
+
+    /**
+     * right join Frame by key
+     * such as {@link IFrame#rightJoin(IFrame, Function, Function, Join)}, but the default Join is {@link DefaultJoin},
+     *
+     * @param other    other frame
+     * @param key      the connection key of this frame
+     * @param otherKey the connection key of other frame
+     * @param <R>      new Frame type
+     * @param <K>      other Frame type
+     * @param <V>      the connection key type
+     */
+    <R, K, V> IFrame<R> rightJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey);
+
+    /**
+     * full join Frame
+     * if connection conditions false, The callback value T or K for Join will be null， always keep T and K.
+     * the result order is the order of this frame, and then the unconnected rows of other frame
+     *
+     * @param other other frame
+     * @param on    connection conditions
+     * @param join  Connection logic
+     * @param <R>   new Frame type
+     * @param <K>   other Frame type
+     */
+    <R, K> IFrame<R> fullJoin(IFrame<K> other, JoinOn<T, K> on, Join<T, K, R> join);
+
+    /**
+     * full join Frame
+     * such as {@link IFrame#fullJoin(IFrame, JoinOn, Join)}, but the default Join is {@link DefaultJoin},
+     *
+     * @param other other frame
+     * @param on    connection conditions
+     * @param <R>   new Frame type
+     * @param <K>   other Frame type
+     */
+    <R, K> IFrame<R> fullJoin(IFrame<K> other, JoinOn<T, K> on);
+
+    /**
+     * full join Frame by key
+     * if no key connected, The callback value T or K for Join will be null， always keep T and K.
+     * the result order is the order of this frame, and then the unconnected rows of other frame
+     *
+     * @param other    other frame
+     * @param key      the connection key of this frame
+     * @param otherKey the connection key of other frame
+     * @param join     Connection logic
+     * @param <R>      new Frame type
+     * @param <K>      other Frame type
+     * @param <V>      the connection key type
+     */
+    <R, K, V> IFrame<R> fullJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join);
+
+    /**
+     * full join Frame by key
+     * such as {@link IFrame#fullJoin(IFrame, Function, Function, Join)}, but the default Join is {@link DefaultJoin},
+     *
+     * @param other    other frame
+     * @param key      the connection key of this frame
+     * @param otherKey the connection key of other frame
+     * @param <R>      new Frame type
+     * @param <K>      other Frame type
+     * @param <V>      the connection key type
+     */
+    <R, K, V> IFrame<R> fullJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey);
+
+    /**
+     * inner join Frame by key with sort merge join
+     * both frames must be already sorted by the connection key with the keyComparator, such as sorted by {@link IFrame#sortAsc(Comparator)}.
+     * it runs in O(n+m) without building hash table, if any frame is not sorted it will fall back to a join on a TreeMap of the keyComparator.
+     * the keys are matched when the keyComparator returns 0, so the result is the same as {@link IFrame#join(IFrame, Function, Function, Join)}
+     * only if the keyComparator is consistent with equals, such as BigDecimal 1.0 and 1.00 are matched here but not by join
+     *
+     * @param other         other frame
+     * @param key           the connection key of this frame
+     * @param otherKey      the connection key of other frame
+     * @param keyComparator the comparator that both frames are sorted by
+     * @param join          Connection logic
+     * @param <R>           new Frame type
+     * @param <K>           other Frame type
+     * @param <V>           the connection key type
+     */
+    <R, K, V> IFrame<R> mergeJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Comparator<? super V> keyComparator, Join<T, K, R> join);
+
+    /**
+     * inner join Frame by key with sort merge join
+     * such as {@link IFrame#mergeJoin(IFrame, Function, Function, Comparator, Join)}, but both frames are sorted by the natural order of key
+     *
+     * @param other    other frame
+     * @param key      the connection key of this frame
+     * @param otherKey the connection key of other frame
+     * @param join     Connection logic
+     * @param <R>      new Frame type
+     * @param <K>      other Frame type
+     * @param <V>      the connection key type
+     */
+    <R, K, V extends Comparable<? super V>> IFrame<R> mergeJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join);
+
     /**
      * ===========================   Frame Convert  =====================================
      */
@@ -356,6 +575,51 @@ public interface IFrame<T> extends Iterable<T> {
      */
     IFrame<T> cutFirstRank(Sorter<T> sorter, int n);
 
+    /**
+     * Cut the top N rankings data in each window partition
+     * The same value is considered to have the same ranking
+     *
+     * @param window the window with partition and sort
+     * @param n      the top n
+     */
+    IFrame<T> cutFirstRank(Window<T> window, int n);
+
+    /**
+     * Cut the max n element by comparator, same as sortDesc(comparator).cutFirst(n)
+     * use a bounded heap of n element instead of sorting all element
+     *
+     * @param comparator comparator
+     * @param n          the top n
+     */
+    IFrame<T> topN(Comparator<T> comparator, int n);
+
+    /**
+     * Cut the max n element by field
+     *
+     * @param function sort field
+     * @param n        the top n
+     * @param <R>      the sort field type
+     */
+    <R extends Comparable<? super R>> IFrame<T> topN(Function<T, R> function, int n);
+
+    /**
+     * Cut the min n element by comparator, same as sortAsc(comparator).cutFirst(n)
+     * use a bounded heap of n element instead of sorting all element
+     *
+     * @param comparator comparator
+     * @param n          the bottom n
+     */
+    IFrame<T> bottomN(Comparator<T> comparator, int n);
+
+    /**
+     * Cut the min n element by field
+     *
+     * @param function sort field
+     * @param n        the bottom n
+     * @param <R>      the sort field type
+     */
+    <R extends Comparable<? super R>> IFrame<T> bottomN(Function<T, R> function, int n);
+
 
     /** ===========================   View Frame  ===================================== **/
 
@@ -408,6 +672,14 @@ public interface IFrame<T> extends Iterable<T> {
      */
     <R extends Comparable<R>> IFrame<T> distinct(Comparator<T> comparator);
 
+    /**
+     * distinct by field value in hash set, keep the first row of each value in the order they first appear
+     *
+     * @param function the field
+     * @param <K>      field value type
+     */
+    <K> IFrame<T> distinctBy(Function<T, K> function);
+
     /**
      * Calculate the quantity after deduplication
      */
@@ -418,6 +690,19 @@ public interface IFrame<T> extends Iterable<T> {
      */
     long countDistinct(Comparator<T> comparator);
 
+    /**
+     * Approximate the quantity after deduplication by HyperLogLog, the null value is ignored
+     *
+     * @param function  the field
+     * @param precision the precision of HyperLogLog in [4,18], the relative error is about 1.04 / sqrt(2^precision)
+     */
+    <R> long approxCountDistinct(Function<T, R> function, int precision);
+
+    /**
+     * Approximate the quantity after deduplication by HyperLogLog with precision 14, the relative error is about 0.8%
+     */
+    <R> long approxCountDistinct(Function<T, R> function);
+
     /**
      * ===========================   Where Frame  =====================================
      **/
@@ -509,6 +794,7 @@ public interface IFrame<T> extends Iterable<T> {
      */
     <R> IFrame<T> whereIn(Function<T, R> function, List<R> list);
 
+
     /**
      * The query value is outside the specified range
      *
@@ -517,6 +803,30 @@ public interface IFrame<T> extends Iterable<T> {
      */
     <R> IFrame<T> whereNotIn(Function<T, R> function, List<R> list);
 
+    /**
+     * Filter the rows whose key exists in the other frame, such as the sql: where exists (select 1 from other where other.key = key)
+     * only the key set of other frame is built, the rows are not connected. null key never exists
+     *
+     * @param other    other frame
+     * @param key      the key of this frame
+     * @param otherKey the key of other frame
+     * @param <K>      other Frame type
+     * @param <V>      the key type
+     */
+    <K, V> IFrame<T> whereExists(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey);
+
+    /**
+     * Filter the rows whose key not exists in the other frame, such as the sql: where not exists (select 1 from other where other.key = key)
+     * only the key set of other frame is built, the rows are not connected. null key never exists
+     *
+     * @param other    other frame
+     * @param key      the key of this frame
+     * @param otherKey the key of other frame
+     * @param <K>      other Frame type
+     * @param <V>      the key type
+     */
+    <K, V> IFrame<T> whereNotExists(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey);
+
     /**
      * filter true by predicate
      */
@@ -624,6 +934,48 @@ public interface IFrame<T> extends Iterable<T> {
      */
     <R> BigDecimal avg(Function<T, R> function);
 
+    /**
+     * Sum the long values of the field
+     * the field should not be null, throw ArithmeticException if the sum overflows
+     *
+     * @param function the  field
+     */
+    long sumLong(ToLongFunction<T> function);
+
+    /**
+     * Sum the double values of the field
+     * the field should not be null
+     *
+     * @param function the  field
+     */
+    double sumDouble(ToDoubleFunction<T> function);
+
+    /**
+     * average the double values of the field, null if frame is empty
+     * the field should not be null
+     *
+     * @param function the  field
+     */
+    Double avgDouble(ToDoubleFunction<T> function);
+
+    /**
+     * approximate quantiles of the field by t-digest in one pass, the null value is ignored
+     * the quantile is null if frame has no value
+     *
+     * @param function  the  field
+     * @param quantiles the quantiles in [0,1], such as 0.5, 0.95, 0.99
+     */
+    <R> List<Double> quantile(Function<T, R> function, double... quantiles);
+
+    /**
+     * exact quantiles of the field by selection, the linear interpolation of the nearest two values like PERCENTILE_CONT
+     * the null value is ignored, the quantile is null if frame has no value
+     *
+     * @param function  the  field
+     * @param quantiles the quantiles in [0,1], such as 0.5, 0.95, 0.99
+     */
+    <R> List<Double> quantileExact(Function<T, R> function, double... quantiles);
+
     /**
      * Finding the maximum and minimum element
      *
@@ -754,6 +1106,74 @@ public interface IFrame<T> extends Iterable<T> {
      */
     <K, J, R extends Number> IFrame<FI4<K, J, BigDecimal, Long>> groupBySumCount(Function<T, K> key, Function<T, J> key2, NumberFunction<T, R> value);
 
+    /**
+     * Group approximate count distinct by HyperLogLog, the null value is ignored
+     *
+     * @param key       group field
+     * @param value     the field to count distinct
+     * @param precision the precision of HyperLogLog in [4,18]
+     * @return FItem2(key, count)
+     */
+    <K, R> IFrame<FI2<K, Long>> groupByApproxCountDistinct(Function<T, K> key, Function<T, R> value, int precision);
+
+    /**
+     * Group approximate count distinct by HyperLogLog with precision 14
+     *
+     * @param key   group field
+     * @param value the field to count distinct
+     * @return FItem2(key, count)
+     */
+    <K, R> IFrame<FI2<K, Long>> groupByApproxCountDistinct(Function<T, K> key, Function<T, R> value);
+
+    /**
+     * Group approximate quantiles by t-digest, the null value is ignored
+     *
+     * @param key       group field
+     * @param value     the field
+     * @param quantiles the quantiles in [0,1]
+     * @return FItem2(key, quantile list)
+     */
+    <K, R> IFrame<FI2<K, List<Double>>> groupByQuantile(Function<T, K> key, Function<T, R> value, double... quantiles);
+
+    /**
+     * Group aggregate, such as Agg.sum, Agg.count, Agg.avg, Agg.max, Agg.min
+     *
+     * @param key group field
+     * @param agg aggregate function
+     * @return FItem2(key, agg)
+     */
+    <K, R1> IFrame<FI2<K, R1>> groupByAgg(Function<T, K> key, Agg<T, R1> agg);
+
+    /**
+     * Group several aggregates together in one scan
+     *
+     * @param key  group field
+     * @param agg  first aggregate function
+     * @param agg2 second aggregate function
+     * @return FItem3(key, agg, agg2)
+     */
+    <K, R1, R2> IFrame<FI3<K, R1, R2>> groupByAgg(Function<T, K> key, Agg<T, R1> agg, Agg<T, R2> agg2);
+
+    /**
+     * Group several aggregates together in one scan
+     *
+     * @param key  group field
+     * @param agg  first aggregate function
+     * @param agg2 second aggregate function
+     * @param agg3 third aggregate function
+     * @return FItem4(key, agg, agg2, agg3)
+     */
+    <K, R1, R2, R3> IFrame<FI4<K, R1, R2, R3>> groupByAgg(Function<T, K> key, Agg<T, R1> agg, Agg<T, R2> agg2, Agg<T, R3> agg3);
+
+    /**
+     * Group any number of aggregates together in one scan
+     *
+     * @param key  group field
+     * @param aggs aggregate functions
+     * @return FItem2(key, the results of aggs in order)
+     */
+    <K> IFrame<FI2<K, List<Object>>> groupByAggs(Function<T, K> key, List<Agg<T, ?>> aggs);
+
 
     /**
      * Group average
@@ -3,6 +3,8 @@ package io.github.burukeyou.dataframe.iframe;
 
 import io.github.burukeyou.dataframe.iframe.function.ReplenishFunction;
 import io.github.burukeyou.dataframe.iframe.function.SetFunction;
+import io.github.burukeyou.dataframe.iframe.index.FrameIndex;
+import io.github.burukeyou.dataframe.iframe.index.SortedFrameIndex;
 import io.github.burukeyou.dataframe.iframe.item.FI2;
 import io.github.burukeyou.dataframe.iframe.item.FI3;
 import io.github.burukeyou.dataframe.iframe.item.FI4;
@@ -11,15 +13,20 @@ import io.github.burukeyou.dataframe.iframe.window.Sorter;
 import io.github.burukeyou.dataframe.iframe.window.Window;
 import io.github.burukeyou.dataframe.util.CollectorsPlusUtil;
 import io.github.burukeyou.dataframe.util.FrameUtil;
+import io.github.burukeyou.dataframe.util.HyperLogLog;
 import io.github.burukeyou.dataframe.util.MathUtils;
 import io.github.burukeyou.dataframe.util.PartitionList;
+import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -30,10 +37,21 @@ import static java.util.stream.Collectors.*;
 /**
  * @author caizhihao
  */
+@Slf4j
 public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<T> {
 
     public List<T> dataList;
 
+    /**
+     * the index of column, key is the function of column
+     */
+    private Map<Function<T, ?>, FrameIndex<?, T>> indexMap;
+
+    /**
+     * the sorted index of column, key is the function of column
+     */
+    private Map<Function<T, ?>, SortedFrameIndex<?, T>> sortedIndexMap;
+
     public JDFrameImpl(List<T> list) {
         dataList = list;
         if (dataList != null && !dataList.isEmpty()){
@@ -74,6 +92,155 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
         return this;
     }
 
+    @Override
+    public JDFrameImpl<T> parallel() {
+        return parallel(ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public JDFrameImpl<T> parallel(ForkJoinPool pool) {
+        initParallel(Objects.requireNonNull(pool));
+        return this;
+    }
+
+    @Override
+    public JDFrameImpl<T> sequential() {
+        initParallel(null);
+        return this;
+    }
+
+    @Override
+    public <K> FrameIndex<K, T> createIndex(Function<T, K> function) {
+        FrameIndex<K, T> index = new FrameIndex<>(dataList, function);
+        if (indexMap == null) {
+            indexMap = new HashMap<>();
+        }
+        indexMap.put(function, index);
+        return index;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected <K> FrameIndex<K, T> getIndex(Function<T, K> function) {
+        if (indexMap == null) {
+            return null;
+        }
+        FrameIndex<K, T> index = (FrameIndex<K, T>) indexMap.get(function);
+        if (index == null) {
+            log.debug("no index is created by the function instance {}, fall back to full scan, the frame has {} index", function, indexMap.size());
+        }
+        return index;
+    }
+
+    private <K> FrameIndex<K, T> checkIndex(FrameIndex<K, T> index) {
+        if (getIndex(index.getKeyFunction()) != index) {
+            throw new IllegalArgumentException("the index is not created on this frame");
+        }
+        return index;
+    }
+
+    @Override
+    public <K> JDFrame<T> whereEq(FrameIndex<K, T> index, K value) {
+        if (null == value) {
+            return this;
+        }
+        return returnDF(checkIndex(index).get(value));
+    }
+
+    @Override
+    public <K> JDFrame<T> whereIn(FrameIndex<K, T> index, List<K> list) {
+        if (list == null || list.isEmpty()) {
+            return this;
+        }
+        return returnDF(checkIndex(index).getAll(list));
+    }
+
+    @Override
+    public <R extends Comparable<R>> SortedFrameIndex<R, T> createSortedIndex(Function<T, R> function) {
+        SortedFrameIndex<R, T> index = new SortedFrameIndex<>(dataList, function);
+        if (sortedIndexMap == null) {
+            sortedIndexMap = new HashMap<>();
+        }
+        sortedIndexMap.put(function, index);
+        return index;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected <R extends Comparable<R>> SortedFrameIndex<R, T> getSortedIndex(Function<T, R> function) {
+        if (sortedIndexMap == null) {
+            return null;
+        }
+        SortedFrameIndex<R, T> index = (SortedFrameIndex<R, T>) sortedIndexMap.get(function);
+        if (index == null) {
+            log.debug("no sorted index is created by the function instance {}, fall back to full scan, the frame has {} sorted index", function, sortedIndexMap.size());
+        }
+        return index;
+    }
+
+    private <R extends Comparable<R>> SortedFrameIndex<R, T> checkSortedIndex(SortedFrameIndex<R, T> index) {
+        if (getSortedIndex(index.getKeyFunction()) != index) {
+            throw new IllegalArgumentException("the sorted index is not created on this frame");
+        }
+        return index;
+    }
+
+    @Override
+    public <R extends Comparable<R>> JDFrame<T> whereBetween(SortedFrameIndex<R, T> index, R start, R end) {
+        if (start == null && end == null) {
+            return this;
+        }
+        return returnDF(checkSortedIndex(index).range(start,true,end,true));
+    }
+
+    @Override
+    public <R extends Comparable<R>> JDFrame<T> whereNotBetween(SortedFrameIndex<R, T> index, R start, R end) {
+        if (start == null || end == null) {
+            return this;
+        }
+        return returnDF(checkSortedIndex(index).outside(start,true,end,true));
+    }
+
+    @Override
+    public <R extends Comparable<R>> JDFrame<T> whereGt(SortedFrameIndex<R, T> index, R value) {
+        if (value == null) {
+            return this;
+        }
+        return returnDF(checkSortedIndex(index).range(value,false,null,false));
+    }
+
+    @Override
+    public <R extends Comparable<R>> JDFrame<T> whereGe(SortedFrameIndex<R, T> index, R value) {
+        if (value == null) {
+            return this;
+        }
+        return returnDF(checkSortedIndex(index).range(value,true,null,false));
+    }
+
+    @Override
+    public <R extends Comparable<R>> JDFrame<T> whereLt(SortedFrameIndex<R, T> index, R value) {
+        if (value == null) {
+            return this;
+        }
+        return returnDF(checkSortedIndex(index).range(null,false,value,false));
+    }
+
+    @Override
+    public <R extends Comparable<R>> JDFrame<T> whereLe(SortedFrameIndex<R, T> index, R value) {
+        if (value == null) {
+            return this;
+        }
+        return returnDF(checkSortedIndex(index).range(null,false,value,true));
+    }
+
+    @Override
+    protected void onDataReordered() {
+        if (indexMap != null) {
+            indexMap.values().forEach(FrameIndex::invalidate);
+        }
+        if (sortedIndexMap != null) {
+            sortedIndexMap.values().forEach(SortedFrameIndex::invalidate);
+        }
+    }
+
     public <R> JDFrameImpl<R> from(List<R> list) {
         return new JDFrameImpl<>(list);
     }
@@ -149,6 +316,76 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
         return rightJoin(other,on,new DefaultJoin<>());
     }
 
+    @Override
+    public <R, K, V> JDFrameImpl<R> join(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join) {
+        return returnDF(joinList(other,key,otherKey,join));
+    }
+
+    @Override
+    public <R, K, V> JDFrameImpl<R> join(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey) {
+        return join(other,key,otherKey,new DefaultJoin<>());
+    }
+
+    @Override
+    public <R, K, V> JDFrameImpl<R> join(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join, BloomOption bloomOption) {
+        return returnDF(joinList(other,key,otherKey,join,bloomOption));
+    }
+
+    @Override
+    public <R, K, V> JDFrameImpl<R> leftJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join) {
+        return returnDF(leftJoinList(other,key,otherKey,join));
+    }
+
+    @Override
+    public <R, K, V> JDFrameImpl<R> leftJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey) {
+        return leftJoin(other,key,otherKey,new DefaultJoin<>());
+    }
+
+    @Override
+    public <R, K, V> JDFrameImpl<R> leftJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join, BloomOption bloomOption) {
+        return returnDF(leftJoinList(other,key,otherKey,join,bloomOption));
+    }
+
+    @Override
+    public <R, K, V> JDFrameImpl<R> rightJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join) {
+        return returnDF(rightJoinList(other,key,otherKey,join));
+    }
+
+    @Override
+    public <R, K, V> JDFrameImpl<R> rightJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey) {
+        return rightJoin(other,key,otherKey,new DefaultJoin<>());
+    }
+
+    @Override
+    public <R, K> JDFrameImpl<R> fullJoin(IFrame<K> other, JoinOn<T, K> on, Join<T, K, R> join) {
+        return from(fullJoinList(other,on,join));
+    }
+
+    @Override
+    public <R, K> JDFrameImpl<R> fullJoin(IFrame<K> other, JoinOn<T, K> on) {
+        return fullJoin(other,on,new DefaultJoin<>());
+    }
+
+    @Override
+    public <R, K, V> JDFrameImpl<R> fullJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join) {
+        return returnDF(fullJoinList(other,key,otherKey,join));
+    }
+
+    @Override
+    public <R, K, V> JDFrameImpl<R> fullJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey) {
+        return fullJoin(other,key,otherKey,new DefaultJoin<>());
+    }
+
+    @Override
+    public <R, K, V> JDFrameImpl<R> mergeJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Comparator<? super V> keyComparator, Join<T, K, R> join) {
+        return returnDF(mergeJoinList(other,key,otherKey,keyComparator,join));
+    }
+
+    @Override
+    public <R, K, V extends Comparable<? super V>> JDFrameImpl<R> mergeJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join) {
+        return mergeJoin(other,key,otherKey,Comparator.naturalOrder(),join);
+    }
+
     @Override
     public JDFrameImpl<FI2<T, Integer>> addRowNumberCol() {
         List<FI2<T, Integer>> result = new ArrayList<>();
@@ -199,6 +436,7 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
     @Override
     public JDFrameImpl<T> sortDesc(Comparator<T> comparator) {
         dataList.sort(comparator.reversed());
+        onDataReordered();
         return this;
     }
 
@@ -210,6 +448,7 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
     @Override
     public JDFrameImpl<T> sortAsc(Comparator<T> comparator) {
         dataList.sort(comparator);
+        onDataReordered();
         return this;
     }
 
@@ -220,7 +459,32 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
 
     @Override
     public JDFrameImpl<T> cutFirstRank(Sorter<T> sorter, int n) {
-        return overRank(Window.sortBy(sorter)).whereLe(FI2::getC2, n).map(FI2::getC1);
+        return cutFirstRank(Window.sortBy(sorter), n);
+    }
+
+    @Override
+    public JDFrameImpl<T> cutFirstRank(Window<T> window, int n) {
+        return returnDF(windowFunctionForCutFirstRank(window, n));
+    }
+
+    @Override
+    public JDFrameImpl<T> topN(Comparator<T> comparator, int n) {
+        return returnDF(stream().collect(CollectorsPlusUtil.sortedLimit(comparator.reversed(), n)));
+    }
+
+    @Override
+    public <R extends Comparable<? super R>> JDFrameImpl<T> topN(Function<T, R> function, int n) {
+        return topN(Comparator.comparing(function), n);
+    }
+
+    @Override
+    public JDFrameImpl<T> bottomN(Comparator<T> comparator, int n) {
+        return returnDF(stream().collect(CollectorsPlusUtil.sortedLimit(comparator, n)));
+    }
+
+    @Override
+    public <R extends Comparable<? super R>> JDFrameImpl<T> bottomN(Function<T, R> function, int n) {
+        return bottomN(Comparator.comparing(function), n);
     }
 
 
@@ -267,6 +531,11 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
         return returnDF(tmp);
     }
 
+    @Override
+    public <K> JDFrameImpl<T> distinctBy(Function<T, K> function) {
+        return returnDF(collect(CollectorsPlusUtil.distinctBy(function)));
+    }
+
     @Override
     public JDFrameImpl<T> where(Predicate<? super T> predicate) {
         return from(stream().filter(predicate));
@@ -279,7 +548,7 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
 
     @Override
     public <R extends Comparable<R>> long countDistinct(Function<T, R> function) {
-        return this.countDistinct(Comparator.comparing(function));
+        return collect(CollectorsPlusUtil.countDistinct(function));
     }
 
     /**
@@ -298,6 +567,10 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
         if (start == null && end == null) {
             return this;
         }
+        SortedFrameIndex<R, T> index = getSortedIndex(function);
+        if (index != null) {
+            return returnDF(index.range(start,true,end,true));
+        }
         return returnDF(whereBetweenStream(function,start,end));
     }
 
@@ -306,6 +579,10 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
         if (start == null && end == null) {
             return this;
         }
+        SortedFrameIndex<R, T> index = getSortedIndex(function);
+        if (index != null) {
+            return returnDF(index.range(start,false,end,false));
+        }
         return returnDF(whereBetweenNStream(function,start,end));
     }
 
@@ -314,6 +591,10 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
         if (start == null && end == null) {
             return this;
         }
+        SortedFrameIndex<R, T> index = getSortedIndex(function);
+        if (index != null) {
+            return returnDF(index.range(start,false,end,true));
+        }
         return returnDF(whereBetweenRStream(function,start,end));
     }
 
@@ -322,6 +603,10 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
         if (start == null && end == null) {
             return this;
         }
+        SortedFrameIndex<R, T> index = getSortedIndex(function);
+        if (index != null) {
+            return returnDF(index.range(start,true,end,false));
+        }
         return returnDF(whereBetweenLStream(function,start,end));
     }
 
@@ -330,6 +615,10 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
         if (start == null || end == null) {
             return this;
         }
+        SortedFrameIndex<R, T> index = getSortedIndex(function);
+        if (index != null) {
+            return returnDF(index.outside(start,true,end,true));
+        }
         return returnDF(whereNotBetweenStream(function,start,end));
     }
 
@@ -338,6 +627,10 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
         if (start == null || end == null) {
             return this;
         }
+        SortedFrameIndex<R, T> index = getSortedIndex(function);
+        if (index != null) {
+            return returnDF(index.outside(start,false,end,false));
+        }
         return returnDF(whereNotBetweenNStream(function,start,end));
     }
 
@@ -345,6 +638,10 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
         if (list == null || list.isEmpty()) {
             return this;
         }
+        FrameIndex<R, T> index = getIndex(function);
+        if (index != null) {
+            return returnDF(index.getAll(list));
+        }
         return returnDF(whereInStream(function,list));
     }
 
@@ -356,6 +653,14 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
         return returnDF(whereNotInStream(function,list));
     }
 
+    public <K, V> JDFrame<T> whereExists(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey) {
+        return returnDF(whereExistsStream(other,key,otherKey));
+    }
+
+    public <K, V> JDFrame<T> whereNotExists(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey) {
+        return returnDF(whereNotExistsStream(other,key,otherKey));
+    }
+
     public JDFrame<T> whereTrue(Predicate<T> predicate) {
         return returnDF(stream().filter(predicate));
     }
@@ -370,6 +675,10 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
         if (null == value) {
             return this;
         }
+        FrameIndex<R, T> index = getIndex(function);
+        if (index != null) {
+            return returnDF(index.get(value));
+        }
         return  returnDF(whereEqStream(function,value));
     }
 
@@ -386,6 +695,10 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
         if (value == null) {
             return this;
         }
+        SortedFrameIndex<R, T> index = getSortedIndex(function);
+        if (index != null) {
+            return returnDF(index.range(value,false,null,false));
+        }
         return returnDF(whereGtStream(function,value));
     }
 
@@ -394,6 +707,10 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
         if (value == null) {
             return this;
         }
+        SortedFrameIndex<R, T> index = getSortedIndex(function);
+        if (index != null) {
+            return returnDF(index.range(value,true,null,false));
+        }
         return returnDF(whereGeStream(function,value));
     }
 
@@ -402,6 +719,10 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
         if (value == null) {
             return this;
         }
+        SortedFrameIndex<R, T> index = getSortedIndex(function);
+        if (index != null) {
+            return returnDF(index.range(null,false,value,false));
+        }
         return returnDF(whereLtStream(function,value));
     }
 
@@ -410,6 +731,10 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
         if (value == null) {
             return this;
         }
+        SortedFrameIndex<R, T> index = getSortedIndex(function);
+        if (index != null) {
+            return returnDF(index.range(null,false,value,true));
+        }
         return returnDF(whereLeStream(function,value));
     }
 
@@ -485,53 +810,71 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
 
     public <K> JDFrame<FI2<K, Long>> groupByCount(Function<T, K> key) {
         Collector<Object, ?, Long> counting = counting();
-        Map<K, Long> collect = stream().collect(groupingBy(key, counting));
+        Map<K, Long> collect = collect(groupingBy(key, counting));
         return returnDF(FrameUtil.toListFI2(collect));
     }
 
 
     public <K, J> JDFrame<FI3<K, J, Long>> groupByCount(Function<T, K> key,
                                                         Function<T, J> key2) {
-        Collector<Object, ?, Long> counting = counting();
-        Map<K, Map<J, Long>> collect = stream().collect(groupingBy(key, groupingBy(key2, counting)));
-        return returnDF(FrameUtil.toListFI3(collect));
+        Collector<T, ?, Long> counting = counting();
+        return returnDF(groupKey(key, key2, counting));
     }
 
 
     public <K, J, H> JDFrame<FI4<K, J, H, Long>> groupByCount(Function<T, K> key,
                                                               Function<T, J> key2,
                                                               Function<T, H> key3) {
-        Collector<Object, ?, Long> counting = counting();
-        Map<K, Map<J, Map<H, Long>>> collect = stream().collect(groupingBy(key, groupingBy(key2, groupingBy(key3, counting))));
-        return returnDF(FrameUtil.toListFI4(collect));
+        Collector<T, ?, Long> counting = counting();
+        return returnDF(groupKey(key, key2, key3, counting));
     }
 
 
     public <K,R extends Number> JDFrame<FI3<K, BigDecimal,Long>> groupBySumCount(Function<T, K> key, NumberFunction<T,R> value) {
-        List<T> dataList = toLists();
-        Collector<T, ?, BigDecimal> tBigDecimalCollector = CollectorsPlusUtil.summingBigDecimalForNumber(value);
-        List<FI2<K, BigDecimal>> sumList = returnDF(dataList).groupKey(key, tBigDecimalCollector);
-        List<FI2<K, Long>> countList =  from(dataList).groupByCount(key).toLists();
-        Map<K, Long> countMap = countList.stream().collect(toMap(FI2::getC1, FI2::getC2));
-        List<FI3<K, BigDecimal, Long>> collect = sumList.stream().map(e -> new FI3<>(e.getC1(), e.getC2(), countMap.get(e.getC1()))).collect(Collectors.toList());
-        return returnDF(collect);
+        return returnDF(groupKeyAgg(key, Agg.sum(value), Agg.count()));
     }
 
 
     public <K, J,R extends Number> JDFrame<FI4<K, J, BigDecimal, Long>> groupBySumCount(Function<T, K> key,
                                                                        Function<T, J> key2,
                                                                        NumberFunction<T,R> value) {
-        List<T> dataList = toLists();
-        Collector<T, ?, BigDecimal> tBigDecimalCollector = CollectorsPlusUtil.summingBigDecimalForNumber(value);
-        List<FI3<K, J, BigDecimal>> sumList = returnDF(dataList).groupKey(key, key2, tBigDecimalCollector);
-        List<FI3<K, J, Long>> countList =  from(dataList).groupByCount(key, key2).toLists();
-        // 合并sum和count字段
-        Map<String, FI3<K, J, Long>> countMap = countList.stream().collect(toMap(e -> e.getC1() + "_" + e.getC2(), Function.identity()));
-        List<FI4<K, J, BigDecimal, Long>> collect = sumList.stream().map(e -> {
-            FI3<K, J, Long> countItem = countMap.get(e.getC1() + "_" + e.getC2());
-            return new FI4<>(e.getC1(), e.getC2(), e.getC3(), countItem.getC3());
-        }).collect(Collectors.toList());
-        return returnDF(collect);
+        return returnDF(groupKeyAgg(key, key2, Agg.sum(value), Agg.count()));
+    }
+
+
+    @Override
+    public <K, R> JDFrame<FI2<K, Long>> groupByApproxCountDistinct(Function<T, K> key, Function<T, R> value, int precision) {
+        return groupByAgg(key, Agg.approxCountDistinct(value, precision));
+    }
+
+    @Override
+    public <K, R> JDFrame<FI2<K, Long>> groupByApproxCountDistinct(Function<T, K> key, Function<T, R> value) {
+        return groupByApproxCountDistinct(key, value, HyperLogLog.DEFAULT_PRECISION);
+    }
+
+    @Override
+    public <K, R> JDFrame<FI2<K, List<Double>>> groupByQuantile(Function<T, K> key, Function<T, R> value, double... quantiles) {
+        return returnDF(groupKey(key, CollectorsPlusUtil.quantile(value, quantiles)));
+    }
+
+    @Override
+    public <K, R1> JDFrame<FI2<K, R1>> groupByAgg(Function<T, K> key, Agg<T, R1> agg) {
+        return returnDF(groupKey(key, agg.collector(defaultScale, defaultRoundingMode)));
+    }
+
+    @Override
+    public <K, R1, R2> JDFrame<FI3<K, R1, R2>> groupByAgg(Function<T, K> key, Agg<T, R1> agg, Agg<T, R2> agg2) {
+        return returnDF(groupKeyAgg(key, agg, agg2));
+    }
+
+    @Override
+    public <K, R1, R2, R3> JDFrame<FI4<K, R1, R2, R3>> groupByAgg(Function<T, K> key, Agg<T, R1> agg, Agg<T, R2> agg2, Agg<T, R3> agg3) {
+        return returnDF(groupKeyAgg(key, agg, agg2, agg3));
+    }
+
+    @Override
+    public <K> JDFrame<FI2<K, List<Object>>> groupByAggs(Function<T, K> key, List<Agg<T, ?>> aggs) {
+        return returnDF(groupKeyAgg(key, aggs));
     }
 
 
@@ -566,7 +909,7 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
 
     public <K, V extends Comparable<? super V>> JDFrame<FI2<K, T>> groupByMax(Function<T, K> key,
                                                                       Function<T, V> value) {
-        Map<K, T> collect = stream().collect(groupingBy(key, collectingAndThen(toList(), getListMaxFunction(value))));
+        Map<K, T> collect = collect(groupingBy(key, groupMaxCollector(value)));
         return returnDF(FrameUtil.toListFI2(collect));
     }
 
@@ -574,8 +917,7 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
 
     @Override
     public <K,J, V extends Comparable<? super V>> JDFrame<FI3<K,J,T>> groupByMax(Function<T, K> key, Function<T, J> key2, Function<T, V> value) {
-        Map<K, Map<J, T>> collect = groupToMap(key, key2,getListMaxFunction(value));
-        return returnDF(FrameUtil.toListFI3(collect));
+        return returnDF(groupKey(key, key2, groupMaxCollector(value)));
     }
 
 
@@ -592,14 +934,13 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
 
     public <K, V extends Comparable<? super V>> JDFrame<FI2<K, T>> groupByMin(Function<T, K> key,
                                                                       Function<T, V> value) {
-        Map<K, T> collect = stream().collect(groupingBy(key, collectingAndThen(toList(), getListMinFunction(value))));
+        Map<K, T> collect = collect(groupingBy(key, groupMinCollector(value)));
         return returnDF(FrameUtil.toListFI2(collect));
     }
 
     @Override
     public <K, J, V extends Comparable<? super V>> JDFrame<FI3<K, J, T>> groupByMin(Function<T, K> key, Function<T, J> key2, Function<T, V> value) {
-        Map<K, Map<J, T>> collect = groupToMap(key, key2,getListMinFunction(value));
-        return returnDF(FrameUtil.toListFI3(collect));
+        return returnDF(groupKey(key, key2, groupMinCollector(value)));
     }
 
     @Override
@@ -615,7 +956,7 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
 
     public <K, V extends Comparable<? super V>> JDFrame<FI2<K, MaxMin<V>>> groupByMaxMinValue(Function<T, K> key,
                                                                                       Function<T, V> value) {
-        Map<K, MaxMin<V>> map = stream().collect(groupingBy(key, collectingAndThen(toList(), getListGroupMaxMinValueFunction(value))));
+        Map<K, MaxMin<V>> map = collect(groupingBy(key, groupMaxMinValueCollector(value)));
         return returnDF(FrameUtil.toListFI2(map));
     }
 
@@ -623,14 +964,13 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
     public <K, J, V extends Comparable<? super V>> JDFrame<FI3<K, J, MaxMin<V>>> groupByMaxMinValue(Function<T, K> key,
                                                                                             Function<T, J> key2,
                                                                                             Function<T, V> value) {
-        Map<K, Map<J, MaxMin<V>>> map = stream().collect(groupingBy(key, groupingBy(key2, collectingAndThen(toList(), getListGroupMaxMinValueFunction(value)))));
-        return returnDF(FrameUtil.toListFI3(map));
+        return returnDF(groupKey(key, key2, groupMaxMinValueCollector(value)));
     }
 
 
     public <K, V extends Comparable<? super V>> JDFrame<FI2<K, MaxMin<T>>> groupByMaxMin(Function<T, K> key,
                                                                                  Function<T, V> value) {
-        Map<K, MaxMin<T>> map = stream().collect(groupingBy(key, collectingAndThen(toList(), getListGroupMaxMinFunction(value))));
+        Map<K, MaxMin<T>> map = collect(groupingBy(key, groupMaxMinCollector(value)));
         return returnDF(FrameUtil.toListFI2(map));
     }
 
@@ -638,8 +978,7 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
     public <K, J, V extends Comparable<? super V>> JDFrame<FI3<K, J, MaxMin<T>>> groupByMaxMin(Function<T, K> key,
                                                                                        Function<T, J> key2,
                                                                                        Function<T, V> value) {
-        Map<K, Map<J, MaxMin<T>>> map = stream().collect(groupingBy(key, groupingBy(key2, collectingAndThen(toList(), getListGroupMaxMinFunction(value)))));
-        return returnDF(FrameUtil.toListFI3(map));
+        return returnDF(groupKey(key, key2, groupMaxMinCollector(value)));
     }
 
 
@@ -647,14 +986,14 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
 
     @Override
     public WindowJDFrame<T> window(Window<T> window) {
-        WindowJDFrameImpl<T> frame = new WindowJDFrameImpl<>(window, dataList);
+        WindowJDFrameImpl<T> frame = new WindowJDFrameImpl<>(window, dataList, this);
         transmitMember(this,frame);
         return frame;
     }
 
     @Override
     public WindowJDFrame<T> window() {
-        WindowJDFrameImpl<T> frame = new WindowJDFrameImpl<>(emptyWindow,dataList);
+        WindowJDFrameImpl<T> frame = new WindowJDFrameImpl<>(emptyWindow, dataList, this);
         transmitMember(this,frame);
         return frame;
     }
@@ -861,6 +1200,116 @@ public class JDFrameImpl<T> extends AbstractDataFrameImpl<T> implements JDFrame<
         return overAvgS(setFunction, emptyWindow,field);
     }
 
+    @Override
+    public <F> JDFrameImpl<FI2<T, Double>> overQuantile(Window<T> overParam, Function<T, F> field, double quantile) {
+        return returnDF(windowFunctionForQuantile(overParam, field, quantile));
+    }
+
+    @Override
+    public <F> JDFrameImpl<FI2<T, Double>> overQuantile(Function<T, F> field, double quantile) {
+        return overQuantile(emptyWindow, field, quantile);
+    }
+
+    @Override
+    public <F> JDFrameImpl<T> overQuantileS(SetFunction<T, Double> setFunction, Window<T> overParam, Function<T, F> field, double quantile) {
+        return fi2Frame(overQuantile(overParam, field, quantile), setFunction);
+    }
+
+    @Override
+    public <F> JDFrameImpl<T> overQuantileS(SetFunction<T, Double> setFunction, Function<T, F> field, double quantile) {
+        return overQuantileS(setFunction, emptyWindow, field, quantile);
+    }
+
+    @Override
+    public JDFrameImpl<FI2<T, Long>> overSumLong(Window<T> overParam, ToLongFunction<T> field) {
+        return returnDF(windowFunctionForSumLong(overParam, field));
+    }
+
+    @Override
+    public JDFrameImpl<FI2<T, Long>> overSumLong(ToLongFunction<T> field) {
+        return overSumLong(emptyWindow, field);
+    }
+
+    @Override
+    public JDFrameImpl<T> overSumLongS(SetFunction<T, Long> setFunction, Window<T> overParam, ToLongFunction<T> field) {
+        return fi2Frame(overSumLong(overParam, field), setFunction);
+    }
+
+    @Override
+    public JDFrameImpl<T> overSumLongS(SetFunction<T, Long> setFunction, ToLongFunction<T> field) {
+        return overSumLongS(setFunction, emptyWindow, field);
+    }
+
+    @Override
+    public JDFrameImpl<FI2<T, Double>> overSumDouble(Window<T> overParam, ToDoubleFunction<T> field) {
+        return overSumDouble(overParam, field, false);
+    }
+
+    @Override
+    public JDFrameImpl<FI2<T, Double>> overSumDouble(Window<T> overParam, ToDoubleFunction<T> field, boolean compensated) {
+        return returnDF(windowFunctionForSumDouble(overParam, field, false, compensated));
+    }
+
+    @Override
+    public JDFrameImpl<FI2<T, Double>> overSumDouble(ToDoubleFunction<T> field) {
+        return overSumDouble(emptyWindow, field);
+    }
+
+    @Override
+    public JDFrameImpl<T> overSumDoubleS(SetFunction<T, Double> setFunction, Window<T> overParam, ToDoubleFunction<T> field) {
+        return fi2Frame(overSumDouble(overParam, field), setFunction);
+    }
+
+    @Override
+    public JDFrameImpl<T> overSumDoubleS(SetFunction<T, Double> setFunction, ToDoubleFunction<T> field) {
+        return overSumDoubleS(setFunction, emptyWindow, field);
+    }
+
+    @Override
+    public JDFrameImpl<FI2<T, Double>> overAvgDouble(Window<T> overParam, ToDoubleFunction<T> field) {
+        return overAvgDouble(overParam, field, false);
+    }
+
+    @Override
+    public JDFrameImpl<FI2<T, Double>> overAvgDouble(Window<T> overParam, ToDoubleFunction<T> field, boolean compensated) {
+        return returnDF(windowFunctionForSumDouble(overParam, field, true, compensated));
+    }
+
+    @Override
+    public JDFrameImpl<FI2<T, Double>> overAvgDouble(ToDoubleFunction<T> field) {
+        return overAvgDouble(emptyWindow, field);
+    }
+
+    @Override
+    public JDFrameImpl<T> overAvgDoubleS(SetFunction<T, Double> setFunction, Window<T> overParam, ToDoubleFunction<T> field) {
+        return fi2Frame(overAvgDouble(overParam, field), setFunction);
+    }
+
+    @Override
+    public JDFrameImpl<T> overAvgDoubleS(SetFunction<T, Double> setFunction, ToDoubleFunction<T> field) {
+        return overAvgDoubleS(setFunction, emptyWindow, field);
+    }
+
+    @Override
+    public JDFrameImpl<FI2<T, Double>> overAvgLong(Window<T> overParam, ToLongFunction<T> field) {
+        return returnDF(windowFunctionForAvgLong(overParam, field));
+    }
+
+    @Override
+    public JDFrameImpl<FI2<T, Double>> overAvgLong(ToLongFunction<T> field) {
+        return overAvgLong(emptyWindow, field);
+    }
+
+    @Override
+    public JDFrameImpl<T> overAvgLongS(SetFunction<T, Double> setFunction, Window<T> overParam, ToLongFunction<T> field) {
+        return fi2Frame(overAvgLong(overParam, field), setFunction);
+    }
+
+    @Override
+    public JDFrameImpl<T> overAvgLongS(SetFunction<T, Double> setFunction, ToLongFunction<T> field) {
+        return overAvgLongS(setFunction, emptyWindow, field);
+    }
+
     @Override
     public <F extends Comparable<? super F>>  JDFrameImpl<FI2<T, F>> overMaxValue(Window<T> overParam, Function<T, F> field) {
         return returnDF(windowFunctionForMaxValue(overParam,field));
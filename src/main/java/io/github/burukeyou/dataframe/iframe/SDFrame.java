@@ -15,9 +15,12 @@ import java.math.RoundingMode;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Stream;
 
 /**
@@ -75,6 +78,22 @@ public interface SDFrame<T> extends IFrame<T> {
      */
     SDFrame<T> defaultScale(int scale, RoundingMode roundingMode);
 
+    /**
+     * Run the parallel operation such as join on the common ForkJoinPool
+     */
+    SDFrame<T> parallel();
+
+    /**
+     * Run the parallel operation such as join on the specified ForkJoinPool
+     * @param pool          the pool to run the parallel operation
+     */
+    SDFrame<T> parallel(ForkJoinPool pool);
+
+    /**
+     * Run all operation in the current thread, it is the default
+     */
+    SDFrame<T> sequential();
+
 
     /**
      * ===========================   Frame Info =====================================
@@ -179,6 +198,187 @@ public interface SDFrame<T> extends IFrame<T> {
      */
     <R,K> SDFrame<R> rightJoin(IFrame<K> other, JoinOn<T,K> on);
 
+    /**
+     * inner join Frame by key
+     *      the rows are connected when the key of T equals the key of K, null key never connected.
+     *      it runs as a hash join that builds on the smaller frame, the cost is O(n+m)
+     * @param other         other frame
+     * @param key           the connection key of this frame
+     * @param otherKey      the connection key of other frame
+     * @param join          Connection logic
+     * @param <R>           new Frame type
+     * @param <K>           other Frame type
+     * @param <V>           the connection key type
+     */
+    <R,K,V> SDFrame<R> join(IFrame<K> other, Function<T,V> key, Function<K,V> otherKey, Join<T,K,R> join);
+
+    /**
+     * inner join Frame by key
+     *      such as {@link IFrame#join(IFrame, Function, Function, Join)}, but the default Join is {@link DefaultJoin},
+     * @param other         other frame
+     * @param key           the connection key of this frame
+     * @param otherKey      the connection key of other frame
+     * @param <R>           new Frame type
+     * @param <K>           other Frame type
+     * @param <V>           the connection key type
+     */
+    <R,K,V> SDFrame<R> join(IFrame<K> other, Function<T,V> key, Function<K,V> otherKey);
+
+    /**
+     * inner join Frame by key with bloom filter
+     *        such as {@link IFrame#join(IFrame, Function, Function, Join)}, but the rows rejected by the bloom filter skip the hash lookup
+     * @param other         other frame
+     * @param key           the connection key of this frame
+     * @param otherKey      the connection key of other frame
+     * @param join          Connection logic
+     * @param bloomOption   bloom filter option
+     * @param <R>           new Frame type
+     * @param <K>           other Frame type
+     * @param <V>           the connection key type
+     */
+    <R,K,V> SDFrame<R> join(IFrame<K> other, Function<T,V> key, Function<K,V> otherKey, Join<T,K,R> join, BloomOption bloomOption);
+
+    /**
+     * left join Frame by key
+     *      if no key connected, The callback value K for Join will be null， always keep T
+     * @param other         other frame
+     * @param key           the connection key of this frame
+     * @param otherKey      the connection key of other frame
+     * @param join          Connection logic
+     * @param <R>           new Frame type
+     * @param <K>           other Frame type
+     * @param <V>           the connection key type
+     */
+    <R,K,V> SDFrame<R> leftJoin(IFrame<K> other, Function<T,V> key, Function<K,V> otherKey, Join<T,K,R> join);
+
+    /**
+     * left join Frame by key
+     *        such as {@link IFrame#leftJoin(IFrame, Function, Function, Join)}, but the default Join is {@link DefaultJoin},
+     * @param other         other frame
+     * @param key           the connection key of this frame
+     * @param otherKey      the connection key of other frame
+     * @param <R>           new Frame type
+     * @param <K>           other Frame type
+     * @param <V>           the connection key type
+     */
+    <R,K,V> SDFrame<R> leftJoin(IFrame<K> other, Function<T,V> key, Function<K,V> otherKey);
+
+    /**
+     * left join Frame by key with bloom filter
+     *        such as {@link IFrame#leftJoin(IFrame, Function, Function, Join)}, but the rows rejected by the bloom filter skip the hash lookup
+     * @param other         other frame
+     * @param key           the connection key of this frame
+     * @param otherKey      the connection key of other frame
+     * @param join          Connection logic
+     * @param bloomOption   bloom filter option
+     * @param <R>           new Frame type
+     * @param <K>           other Frame type
+     * @param <V>           the connection key type
+     */
+    <R,K,V> SDFrame<R> leftJoin(IFrame<K> other, Function<T,V> key, Function<K,V> otherKey, Join<T,K,R> join, BloomOption bloomOption);
+
+    /**
+     * right join Frame by key
+     *      if no key connected, The callback value T for Join will be null， always keep K
+     * @param other         other frame
+     * @param key           the connection key of this frame
+     * @param otherKey      the connection key of other frame
+     * @param join          Connection logic
+     * @param <R>           new Frame type
+     * @param <K>           other Frame type
+     * @param <V>           the connection key type
+     */
+    <R,K,V> SDFrame<R> rightJoin(IFrame<K> other, Function<T,V> key, Function<K,V> otherKey, Join<T,K,R> join);
+
+    /**
+     * right join Frame by key
+     *        such as {@link IFrame#rightJoin(IFrame, Function, Function, Join)}, but the default Join is {@link DefaultJoin},
+     * @param other         other frame
+     * @param key           the connection key of this frame
+     * @param otherKey      the connection key of other frame
+     * @param <R>           new Frame type
+     * @param <K>           other Frame type
+     * @param <V>           the connection key type
+     */
+    <R,K,V> SDFrame<R> rightJoin(IFrame<K> other, Function<T,V> key, Function<K,V> otherKey);
+
+    /**
+     * full join Frame
+     *      if connection conditions false, The callback value T or K for Join will be null， always keep T and K
+     *      the result order is the order of this frame, and then the unconnected rows of other frame
+     * @param other         other frame
+     * @param on            connection conditions
+     * @param join          Connection logic
+     * @param <R>           new Frame type
+     * @param <K>           other Frame type
+     */
+    <R,K> SDFrame<R> fullJoin(IFrame<K> other, JoinOn<T,K> on, Join<T,K,R> join);
+
+    /**
+     * full join Frame
+     *        such as {@link IFrame#fullJoin(IFrame, JoinOn, Join)}, but the default Join is {@link DefaultJoin},
+     * @param other         other frame
+     * @param on            connection conditions
+     * @param <R>           new Frame type
+     * @param <K>           other Frame type
+     */
+    <R,K> SDFrame<R> fullJoin(IFrame<K> other, JoinOn<T,K> on);
+
+    /**
+     * full join Frame by key
+     *      if no key connected, The callback value T or K for Join will be null， always keep T and K
+     *      the result order is the order of this frame, and then the unconnected rows of other frame
+     * @param other         other frame
+     * @param key           the connection key of this frame
+     * @param otherKey      the connection key of other frame
+     * @param join          Connection logic
+     * @param <R>           new Frame type
+     * @param <K>           other Frame type
+     * @param <V>           the connection key type
+     */
+    <R,K,V> SDFrame<R> fullJoin(IFrame<K> other, Function<T,V> key, Function<K,V> otherKey, Join<T,K,R> join);
+
+    /**
+     * full join Frame by key
+     *        such as {@link IFrame#fullJoin(IFrame, Function, Function, Join)}, but the default Join is {@link DefaultJoin},
+     * @param other         other frame
+     * @param key           the connection key of this frame
+     * @param otherKey      the connection key of other frame
+     * @param <R>           new Frame type
+     * @param <K>           other Frame type
+     * @param <V>           the connection key type
+     */
+    <R,K,V> SDFrame<R> fullJoin(IFrame<K> other, Function<T,V> key, Function<K,V> otherKey);
+
+    /**
+     * inner join Frame by key with sort merge join
+     *      both frames must be already sorted by the connection key with the keyComparator
+     *      the keys are matched when the keyComparator returns 0 rather than by equals
+     *      if any frame is not sorted it will fall back to a join on a TreeMap of the keyComparator
+     * @param other         other frame
+     * @param key           the connection key of this frame
+     * @param otherKey      the connection key of other frame
+     * @param keyComparator the comparator that both frames are sorted by
+     * @param join          Connection logic
+     * @param <R>           new Frame type
+     * @param <K>           other Frame type
+     * @param <V>           the connection key type
+     */
+    <R,K,V> SDFrame<R> mergeJoin(IFrame<K> other, Function<T,V> key, Function<K,V> otherKey, Comparator<? super V> keyComparator, Join<T,K,R> join);
+
+    /**
+     * inner join Frame by key with sort merge join
+     *        such as {@link IFrame#mergeJoin(IFrame, Function, Function, Comparator, Join)}, but both frames are sorted by the natural order of key
+     * @param other         other frame
+     * @param key           the connection key of this frame
+     * @param otherKey      the connection key of other frame
+     * @param join          Connection logic
+     * @param <R>           new Frame type
+     * @param <K>           other Frame type
+     * @param <V>           the connection key type
+     */
+    <R,K,V extends Comparable<? super V>> SDFrame<R> mergeJoin(IFrame<K> other, Function<T,V> key, Function<K,V> otherKey, Join<T,K,R> join);
+
     /**
      * ===========================   Frame Convert  =====================================
      */
@@ -323,6 +523,46 @@ public interface SDFrame<T> extends IFrame<T> {
      */
     SDFrame<T> cutFirstRank(Sorter<T> sorter, int n);
 
+    /**
+     * Cut the top N rankings data in each window partition
+     *          The same value is considered to have the same ranking
+     * @param window                the window with partition and sort
+     * @param n                     the top n
+     */
+    SDFrame<T> cutFirstRank(Window<T> window, int n);
+
+    /**
+     * Cut the max n element by comparator, same as sortDesc(comparator).cutFirst(n)
+     *          use a bounded heap of n element instead of sorting all element
+     * @param comparator            comparator
+     * @param n                     the top n
+     */
+    SDFrame<T> topN(Comparator<T> comparator, int n);
+
+    /**
+     * Cut the max n element by field
+     * @param function              sort field
+     * @param n                     the top n
+     * @param <R>                   the sort field type
+     */
+    <R extends Comparable<? super R>> SDFrame<T> topN(Function<T, R> function, int n);
+
+    /**
+     * Cut the min n element by comparator, same as sortAsc(comparator).cutFirst(n)
+     *          use a bounded heap of n element instead of sorting all element
+     * @param comparator            comparator
+     * @param n                     the bottom n
+     */
+    SDFrame<T> bottomN(Comparator<T> comparator, int n);
+
+    /**
+     * Cut the min n element by field
+     * @param function              sort field
+     * @param n                     the bottom n
+     * @param <R>                   the sort field type
+     */
+    <R extends Comparable<? super R>> SDFrame<T> bottomN(Function<T, R> function, int n);
+
 
 
     /** ===========================   View Frame  ===================================== **/
@@ -369,6 +609,13 @@ public interface SDFrame<T> extends IFrame<T> {
      */
     <R extends Comparable<R>> SDFrame<T> distinct(Comparator<T> comparator);
 
+    /**
+     * distinct by field value in hash set, keep the first row of each value in the order they first appear
+     * @param function          the field
+     * @param <K>               field value type
+     */
+    <K> SDFrame<T> distinctBy(Function<T, K> function);
+
     /**
      * Calculate the quantity after deduplication
      */
@@ -379,6 +626,18 @@ public interface SDFrame<T> extends IFrame<T> {
      */
     long countDistinct(Comparator<T> comparator);
 
+    /**
+     * Approximate the quantity after deduplication by HyperLogLog, the null value is ignored
+     * @param function          the field
+     * @param precision         the precision of HyperLogLog in [4,18], the relative error is about 1.04 / sqrt(2^precision)
+     */
+    <R> long approxCountDistinct(Function<T, R> function, int precision);
+
+    /**
+     * Approximate the quantity after deduplication by HyperLogLog with precision 14, the relative error is about 0.8%
+     */
+    <R> long approxCountDistinct(Function<T, R> function);
+
     /**
      * ===========================   Where Frame  =====================================
      **/
@@ -460,6 +719,7 @@ public interface SDFrame<T> extends IFrame<T> {
      */
     <R> SDFrame<T> whereIn(Function<T, R> function, List<R> list);
 
+
     /**
      * The query value is outside the specified range
      * @param function          the filter field
@@ -467,6 +727,24 @@ public interface SDFrame<T> extends IFrame<T> {
      */
     <R> SDFrame<T> whereNotIn(Function<T, R> function, List<R> list);
 
+    /**
+     * Filter the rows whose key exists in the other frame
+     *      only the key set of other frame is built, null key never exists
+     * @param other             other frame
+     * @param key               the key of this frame
+     * @param otherKey          the key of other frame
+     */
+    <K, V> SDFrame<T> whereExists(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey);
+
+    /**
+     * Filter the rows whose key not exists in the other frame
+     *      only the key set of other frame is built, null key never exists
+     * @param other             other frame
+     * @param key               the key of this frame
+     * @param otherKey          the key of other frame
+     */
+    <K, V> SDFrame<T> whereNotExists(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey);
+
     /**
      * filter true by predicate
      */
@@ -562,6 +840,43 @@ public interface SDFrame<T> extends IFrame<T> {
      */
     <R> BigDecimal avg(Function<T, R> function);
 
+    /**
+     * Sum the long values of the field
+     *          the field should not be null, throw ArithmeticException if the sum overflows
+     * @param function      the  field
+     */
+    long sumLong(ToLongFunction<T> function);
+
+    /**
+     * Sum the double values of the field
+     *          the field should not be null
+     * @param function      the  field
+     */
+    double sumDouble(ToDoubleFunction<T> function);
+
+    /**
+     * average the double values of the field, null if frame is empty
+     *          the field should not be null
+     * @param function      the  field
+     */
+    Double avgDouble(ToDoubleFunction<T> function);
+
+    /**
+     * approximate quantiles of the field by t-digest in one pass, the null value is ignored
+     * the quantile is null if frame has no value
+     * @param function          the  field
+     * @param quantiles         the quantiles in [0,1], such as 0.5, 0.95, 0.99
+     */
+    <R> List<Double> quantile(Function<T, R> function, double... quantiles);
+
+    /**
+     * exact quantiles of the field by selection, the linear interpolation of the nearest two values like PERCENTILE_CONT
+     * the null value is ignored, the quantile is null if frame has no value
+     * @param function          the  field
+     * @param quantiles         the quantiles in [0,1], such as 0.5, 0.95, 0.99
+     */
+    <R> List<Double> quantileExact(Function<T, R> function, double... quantiles);
+
     /**
      * Finding the maximum and minimum element
      * @param function      the  field
@@ -682,6 +997,67 @@ public interface SDFrame<T> extends IFrame<T> {
      */
     <K, J,R extends Number> SDFrame<FI4<K, J, BigDecimal, Long>> groupBySumCount(Function<T, K> key, Function<T, J> key2, NumberFunction<T,R> value);
 
+    /**
+     * Group approximate count distinct by HyperLogLog, the null value is ignored
+     * @param key                 group field
+     * @param value               the field to count distinct
+     * @param precision           the precision of HyperLogLog in [4,18]
+     * @return                    FItem2(key, count)
+     */
+    <K, R> SDFrame<FI2<K, Long>> groupByApproxCountDistinct(Function<T, K> key, Function<T, R> value, int precision);
+
+    /**
+     * Group approximate count distinct by HyperLogLog with precision 14
+     * @param key                 group field
+     * @param value               the field to count distinct
+     * @return                    FItem2(key, count)
+     */
+    <K, R> SDFrame<FI2<K, Long>> groupByApproxCountDistinct(Function<T, K> key, Function<T, R> value);
+
+    /**
+     * Group approximate quantiles by t-digest, the null value is ignored
+     * @param key                 group field
+     * @param value               the field
+     * @param quantiles           the quantiles in [0,1]
+     * @return                    FItem2(key, quantile list)
+     */
+    <K, R> SDFrame<FI2<K, List<Double>>> groupByQuantile(Function<T, K> key, Function<T, R> value, double... quantiles);
+
+    /**
+     * Group aggregate, such as Agg.sum, Agg.count, Agg.avg, Agg.max, Agg.min
+     * @param key                 group field
+     * @param agg                 aggregate function
+     * @return                    FItem2(key, agg)
+     */
+    <K, R1> SDFrame<FI2<K, R1>> groupByAgg(Function<T, K> key, Agg<T, R1> agg);
+
+    /**
+     * Group several aggregates together in one scan
+     * @param key                 group field
+     * @param agg                 first aggregate function
+     * @param agg2                second aggregate function
+     * @return                    FItem3(key, agg, agg2)
+     */
+    <K, R1, R2> SDFrame<FI3<K, R1, R2>> groupByAgg(Function<T, K> key, Agg<T, R1> agg, Agg<T, R2> agg2);
+
+    /**
+     * Group several aggregates together in one scan
+     * @param key                 group field
+     * @param agg                 first aggregate function
+     * @param agg2                second aggregate function
+     * @param agg3                third aggregate function
+     * @return                    FItem4(key, agg, agg2, agg3)
+     */
+    <K, R1, R2, R3> SDFrame<FI4<K, R1, R2, R3>> groupByAgg(Function<T, K> key, Agg<T, R1> agg, Agg<T, R2> agg2, Agg<T, R3> agg3);
+
+    /**
+     * Group any number of aggregates together in one scan
+     * @param key                 group field
+     * @param aggs                aggregate functions
+     * @return                    FItem2(key, the results of aggs in order)
+     */
+    <K> SDFrame<FI2<K, List<Object>>> groupByAggs(Function<T, K> key, List<Agg<T, ?>> aggs);
+
 
     /**
      * Group average
@@ -1141,6 +1517,192 @@ public interface SDFrame<T> extends IFrame<T> {
      */
     <F> SDFrame<T> overAvgS(SetFunction<T,BigDecimal> setFunction, Function<T,F> field);
 
+    /**
+     * quantile window function
+     *         calculate the exact quantile within the window range, the null value is ignored
+     * @param overParam                  window param
+     * @param field                      field value
+     * @param quantile                   the quantile in [0,1], such as 0.5 is median
+     */
+    <F> SDFrame<FI2<T,Double>> overQuantile(Window<T> overParam, Function<T,F> field, double quantile);
+
+    /**
+     * quantile window function
+     *         calculate the exact quantile within the window range, the null value is ignored
+     * @param field                      field value
+     * @param quantile                   the quantile in [0,1], such as 0.5 is median
+     */
+    <F> SDFrame<FI2<T,Double>> overQuantile(Function<T,F> field, double quantile);
+
+    /**
+     * quantile window function
+     *         calculate the exact quantile within the window range, the null value is ignored
+     * @param setFunction                function result accept
+     * @param overParam                  window param
+     * @param field                      field value
+     * @param quantile                   the quantile in [0,1], such as 0.5 is median
+     */
+    <F> SDFrame<T> overQuantileS(SetFunction<T,Double> setFunction, Window<T> overParam, Function<T,F> field, double quantile);
+
+    /**
+     * quantile window function
+     *         calculate the exact quantile within the window range, the null value is ignored
+     * @param setFunction                function result accept
+     * @param field                      field value
+     * @param quantile                   the quantile in [0,1], such as 0.5 is median
+     */
+    <F> SDFrame<T> overQuantileS(SetFunction<T,Double> setFunction, Function<T,F> field, double quantile);
+
+    /**
+     * sum window function
+     *         calculate the long sum within the window range without converting to BigDecimal, the empty window is 0, throw ArithmeticException if the sum overflows
+     * @param overParam                  window param
+     * @param field                      field value
+     */
+    SDFrame<FI2<T,Long>> overSumLong(Window<T> overParam, ToLongFunction<T> field);
+
+    /**
+     * sum window function
+     *         calculate the long sum within the window range without converting to BigDecimal, the empty window is 0, throw ArithmeticException if the sum overflows
+     * @param field                      field value
+     */
+    SDFrame<FI2<T,Long>> overSumLong(ToLongFunction<T> field);
+
+    /**
+     * sum window function
+     *         calculate the long sum within the window range without converting to BigDecimal, the empty window is 0, throw ArithmeticException if the sum overflows
+     * @param setFunction                function result accept
+     * @param overParam                  window param
+     * @param field                      field value
+     */
+    SDFrame<T> overSumLongS(SetFunction<T,Long> setFunction, Window<T> overParam, ToLongFunction<T> field);
+
+    /**
+     * sum window function
+     *         calculate the long sum within the window range without converting to BigDecimal, the empty window is 0, throw ArithmeticException if the sum overflows
+     * @param setFunction                function result accept
+     * @param field                      field value
+     */
+    SDFrame<T> overSumLongS(SetFunction<T,Long> setFunction, ToLongFunction<T> field);
+
+    /**
+     * sum window function
+     *         calculate the double sum within the window range without converting to BigDecimal, the empty window is 0
+     * @param overParam                  window param
+     * @param field                      field value
+     */
+    SDFrame<FI2<T,Double>> overSumDouble(Window<T> overParam, ToDoubleFunction<T> field);
+
+    /**
+     * sum window function
+     *         calculate the double sum within the window range without converting to BigDecimal, the empty window is 0
+     * @param overParam                  window param
+     * @param field                      field value
+     * @param compensated                use the compensated(Kahan) summation, keep the precision when the window slides over many rows
+     */
+    SDFrame<FI2<T,Double>> overSumDouble(Window<T> overParam, ToDoubleFunction<T> field, boolean compensated);
+
+    /**
+     * sum window function
+     *         calculate the double sum within the window range without converting to BigDecimal, the empty window is 0
+     * @param field                      field value
+     */
+    SDFrame<FI2<T,Double>> overSumDouble(ToDoubleFunction<T> field);
+
+    /**
+     * sum window function
+     *         calculate the double sum within the window range without converting to BigDecimal, the empty window is 0
+     * @param setFunction                function result accept
+     * @param overParam                  window param
+     * @param field                      field value
+     */
+    SDFrame<T> overSumDoubleS(SetFunction<T,Double> setFunction, Window<T> overParam, ToDoubleFunction<T> field);
+
+    /**
+     * sum window function
+     *         calculate the double sum within the window range without converting to BigDecimal, the empty window is 0
+     * @param setFunction                function result accept
+     * @param field                      field value
+     */
+    SDFrame<T> overSumDoubleS(SetFunction<T,Double> setFunction, ToDoubleFunction<T> field);
+
+    /**
+     * avg window function
+     *         calculate the double avg within the window range without converting to BigDecimal, the empty window is null
+     * @param overParam                  window param
+     * @param field                      field value
+     */
+    SDFrame<FI2<T,Double>> overAvgDouble(Window<T> overParam, ToDoubleFunction<T> field);
+
+    /**
+     * avg window function
+     *         calculate the double avg within the window range without converting to BigDecimal, the empty window is null
+     * @param overParam                  window param
+     * @param field                      field value
+     * @param compensated                use the compensated(Kahan) summation, keep the precision when the window slides over many rows
+     */
+    SDFrame<FI2<T,Double>> overAvgDouble(Window<T> overParam, ToDoubleFunction<T> field, boolean compensated);
+
+    /**
+     * avg window function
+     *         calculate the double avg within the window range without converting to BigDecimal, the empty window is null
+     * @param field                      field value
+     */
+    SDFrame<FI2<T,Double>> overAvgDouble(ToDoubleFunction<T> field);
+
+    /**
+     * avg window function
+     *         calculate the double avg within the window range without converting to BigDecimal, the empty window is null
+     * @param setFunction                function result accept
+     * @param overParam                  window param
+     * @param field                      field value
+     */
+    SDFrame<T> overAvgDoubleS(SetFunction<T,Double> setFunction, Window<T> overParam, ToDoubleFunction<T> field);
+
+    /**
+     * avg window function
+     *         calculate the double avg within the window range without converting to BigDecimal, the empty window is null
+     * @param setFunction                function result accept
+     * @param field                      field value
+     */
+    SDFrame<T> overAvgDoubleS(SetFunction<T,Double> setFunction, ToDoubleFunction<T> field);
+
+    /**
+     * avg window function
+     *         calculate the exact long sum within the window range and divide it once by the row count, the empty window is null,
+     *         throw ArithmeticException if the sum overflows
+     * @param overParam                  window param
+     * @param field                      field value
+     */
+    SDFrame<FI2<T,Double>> overAvgLong(Window<T> overParam, ToLongFunction<T> field);
+
+    /**
+     * avg window function
+     *         calculate the exact long sum within the window range and divide it once by the row count, the empty window is null,
+     *         throw ArithmeticException if the sum overflows
+     * @param field                      field value
+     */
+    SDFrame<FI2<T,Double>> overAvgLong(ToLongFunction<T> field);
+
+    /**
+     * avg window function
+     *         calculate the exact long sum within the window range and divide it once by the row count, the empty window is null,
+     *         throw ArithmeticException if the sum overflows
+     * @param setFunction                function result accept
+     * @param overParam                  window param
+     * @param field                      field value
+     */
+    SDFrame<T> overAvgLongS(SetFunction<T,Double> setFunction, Window<T> overParam, ToLongFunction<T> field);
+
+    /**
+     * avg window function
+     *         calculate the exact long sum within the window range and divide it once by the row count, the empty window is null,
+     *         throw ArithmeticException if the sum overflows
+     * @param setFunction                function result accept
+     * @param field                      field value
+     */
+    SDFrame<T> overAvgLongS(SetFunction<T,Double> setFunction, ToLongFunction<T> field);
+
     /**
      * max window function
      *         calculate the max value within the window range
@@ -14,9 +14,12 @@ import io.github.burukeyou.dataframe.util.*;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -29,21 +32,37 @@ import static java.util.stream.Collectors.*;
  */
 public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame<T> {
 
-    protected Stream<T> data;
+    /**
+     * the lazy plan of data, it only runs at the terminal operation
+     */
+    protected StreamPlan<T> plan;
 
     public SDFrameImpl(Stream<T> data) {
-        List<T> tmp = data.collect(toList());
-        if (ListUtils.isNotEmpty(tmp)){
-            this.fieldList = buildFieldList(tmp.get(0));
-        }
-        this.data = tmp.stream();
+        this(StreamPlan.of(data));
     }
 
     public SDFrameImpl(List<T> list) {
-        this.data = list.stream();
-        if (!list.isEmpty()){
-            fieldList = buildFieldList(list.get(0));
+        this.plan = StreamPlan.of(list);
+        this.fieldList = list.isEmpty() ? null : buildFieldList(list.get(0));
+    }
+
+    protected SDFrameImpl(StreamPlan<T> plan) {
+        this.plan = plan;
+        // 表头在第一次使用时再从数据中获取
+        this.fieldList = null;
+    }
+
+    @Override
+    public List<String> getFieldList() {
+        if (fieldList == null) {
+            T first = plan.first();
+            if (first == null) {
+                // 没有数据时不缓存, 后续追加数据后再获取
+                return new ArrayList<>();
+            }
+            fieldList = buildFieldList(first);
         }
+        return fieldList;
     }
 
     public <R> SDFrameImpl<R> read(List<R> list) {
@@ -73,9 +92,28 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
         return this;
     }
 
+    @Override
+    public SDFrame<T> parallel() {
+        return parallel(ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public SDFrame<T> parallel(ForkJoinPool pool) {
+        initParallel(Objects.requireNonNull(pool));
+        return this;
+    }
+
+    @Override
+    public SDFrame<T> sequential() {
+        initParallel(null);
+        return this;
+    }
+
     @Override
     public <R> SDFrameImpl<R> map(Function<T, R> map) {
-        return returnDF(stream().map(map).collect(toList()));
+        SDFrameImpl<R> frame = new SDFrameImpl<>(plan.map(map));
+        transmitMember(this,frame);
+        return frame;
     }
 
     @Override
@@ -101,9 +139,7 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
 
     @Override
     public SDFrameImpl<T> append(T t) {
-        List<T> ts = toLists();
-        ts.add(t);
-        data = ts.stream();
+        plan.then(stream -> Stream.concat(stream, Stream.of(t)));
         return this;
     }
 
@@ -112,7 +148,7 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
         if (other.count() <= 0){
             return this;
         }
-        List<T> ts = toLists();
+        List<T> ts = new ArrayList<>(toLists());
         ts.addAll(other.toLists());
         return returnDF(ts);
     }
@@ -147,6 +183,76 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
         return rightJoin(other,on,new DefaultJoin<>());
     }
 
+    @Override
+    public <R, K, V> SDFrameImpl<R> join(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join) {
+        return returnDF(joinList(other,key,otherKey,join));
+    }
+
+    @Override
+    public <R, K, V> SDFrameImpl<R> join(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey) {
+        return join(other,key,otherKey,new DefaultJoin<>());
+    }
+
+    @Override
+    public <R, K, V> SDFrameImpl<R> join(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join, BloomOption bloomOption) {
+        return returnDF(joinList(other,key,otherKey,join,bloomOption));
+    }
+
+    @Override
+    public <R, K, V> SDFrameImpl<R> leftJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join) {
+        return returnDF(leftJoinList(other,key,otherKey,join));
+    }
+
+    @Override
+    public <R, K, V> SDFrameImpl<R> leftJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey) {
+        return leftJoin(other,key,otherKey,new DefaultJoin<>());
+    }
+
+    @Override
+    public <R, K, V> SDFrameImpl<R> leftJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join, BloomOption bloomOption) {
+        return returnDF(leftJoinList(other,key,otherKey,join,bloomOption));
+    }
+
+    @Override
+    public <R, K, V> SDFrameImpl<R> rightJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join) {
+        return returnDF(rightJoinList(other,key,otherKey,join));
+    }
+
+    @Override
+    public <R, K, V> SDFrameImpl<R> rightJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey) {
+        return rightJoin(other,key,otherKey,new DefaultJoin<>());
+    }
+
+    @Override
+    public <R, K> SDFrameImpl<R> fullJoin(IFrame<K> other, JoinOn<T, K> on, Join<T, K, R> join) {
+        return returnDF(fullJoinList(other,on,join));
+    }
+
+    @Override
+    public <R, K> SDFrameImpl<R> fullJoin(IFrame<K> other, JoinOn<T, K> on) {
+        return fullJoin(other,on,new DefaultJoin<>());
+    }
+
+    @Override
+    public <R, K, V> SDFrameImpl<R> fullJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join) {
+        return returnDF(fullJoinList(other,key,otherKey,join));
+    }
+
+    @Override
+    public <R, K, V> SDFrameImpl<R> fullJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey) {
+        return fullJoin(other,key,otherKey,new DefaultJoin<>());
+    }
+
+    @Override
+    public <R, K, V> SDFrameImpl<R> mergeJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Comparator<? super V> keyComparator, Join<T, K, R> join) {
+        return returnDF(mergeJoinList(other,key,otherKey,keyComparator,join));
+    }
+
+    @Override
+    public <R, K, V extends Comparable<? super V>> SDFrameImpl<R> mergeJoin(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey, Join<T, K, R> join) {
+        return mergeJoin(other,key,otherKey,Comparator.naturalOrder(),join);
+    }
+
     @Override
     public SDFrameImpl<FI2<T, Integer>> addRowNumberCol() {
         List<FI2<T, Integer>> result = new ArrayList<>();
@@ -190,21 +296,17 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
 
     @Override
     public List<T> toLists() {
-        List<T> tmp = data.collect(toList());
-        data = tmp.stream();
-        return tmp;
+        return plan.toList();
     }
 
     @Override
     public  Stream<T> stream(){
-        return data;
+        return plan.stream();
     }
 
     @Override
     public long count() {
-        List<T> tmp = stream().collect(toList());
-        data = tmp.stream();
-        return tmp.size();
+        return plan.count();
     }
 
     @Override
@@ -219,7 +321,7 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
 
     @Override
     public SDFrameImpl<T> sortDesc(Comparator<T> comparator) {
-        data = stream().sorted(comparator.reversed());
+        plan.sort(comparator.reversed());
         return this;
     }
 
@@ -231,7 +333,7 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
 
     @Override
     public SDFrameImpl<T> sortAsc(Comparator<T> comparator) {
-        data = stream().sorted(comparator);
+        plan.sort(comparator);
         return this;
     }
 
@@ -243,7 +345,35 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
 
     @Override
     public SDFrame<T> cutFirstRank(Sorter<T> sorter, int n) {
-        return overRank(Window.sortBy(sorter)).whereLe(FI2::getC2, n).map(FI2::getC1);
+        return cutFirstRank(Window.sortBy(sorter), n);
+    }
+
+    @Override
+    public SDFrame<T> cutFirstRank(Window<T> window, int n) {
+        return returnThis(windowFunctionForCutFirstRank(window, n));
+    }
+
+    @Override
+    public SDFrameImpl<T> topN(Comparator<T> comparator, int n) {
+        // 排序后紧跟截取, 执行时会合并成堆排序
+        sortDesc(comparator).cutFirst(n);
+        return this;
+    }
+
+    @Override
+    public <R extends Comparable<? super R>> SDFrameImpl<T> topN(Function<T, R> function, int n) {
+        return topN(Comparator.comparing(function), n);
+    }
+
+    @Override
+    public SDFrameImpl<T> bottomN(Comparator<T> comparator, int n) {
+        sortAsc(comparator).cutFirst(n);
+        return this;
+    }
+
+    @Override
+    public <R extends Comparable<? super R>> SDFrameImpl<T> bottomN(Function<T, R> function, int n) {
+        return bottomN(Comparator.comparing(function), n);
     }
 
 
@@ -251,16 +381,18 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
 
     @Override
     public SDFrame<T> cutFirst(int n) {
-        DFList<T> first = new DFList<>(toLists()).first(n);
-        List<T> build = first.build();
-        return returnThis(build);
+        // 与DFList.first一致, 空Frame不校验n
+        if (n <= 0 && plan.count() > 0){
+            throw new IllegalArgumentException("first N should greater than zero");
+        }
+        plan.limit(n);
+        return this;
     }
 
     @Override
     public SDFrame<T> cutLast(int n) {
         DFList<T> first = new DFList<>(toLists()).last(n);
-        data = first.build().stream();
-        return this;
+        return returnThis(first.build());
     }
 
     @Override
@@ -275,7 +407,7 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
 
     @Override
     public SDFrame<T> distinct() {
-        data = stream().distinct();
+        plan.then(Stream::distinct);
         return this;
     }
 
@@ -287,8 +419,12 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
     @Override
     public <R extends Comparable<R>> SDFrame<T> distinct(Comparator<T> comparator) {
         ArrayList<T> tmp = stream().collect(collectingAndThen(toCollection(() -> new TreeSet<>(comparator)), ArrayList::new));
-        data = tmp.stream();
-        return this;
+        return returnThis(tmp);
+    }
+
+    @Override
+    public <K> SDFrame<T> distinctBy(Function<T, K> function) {
+        return returnThis(collect(CollectorsPlusUtil.distinctBy(function)));
     }
 
     @Override
@@ -298,7 +434,7 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
 
     @Override
     public <R extends Comparable<R>> long countDistinct(Function<T, R> function) {
-        return countDistinct(Comparator.comparing(function));
+        return collect(CollectorsPlusUtil.countDistinct(function));
     }
 
     /**
@@ -306,7 +442,8 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
      **/
     @Override
     public SDFrame<T> where(Predicate<? super T> predicate) {
-        return returnThis(stream().filter(predicate));
+        plan.filter(predicate);
+        return this;
     }
 
     @Override
@@ -382,9 +519,17 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
         return returnThis(whereNotInStream(function,list));
     }
 
+    public <K, V> SDFrame<T> whereExists(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey) {
+        return returnThis(whereExistsStream(other,key,otherKey));
+    }
+
+    public <K, V> SDFrame<T> whereNotExists(IFrame<K> other, Function<T, V> key, Function<K, V> otherKey) {
+        return returnThis(whereNotExistsStream(other,key,otherKey));
+    }
+
 
     public SDFrame<T> whereTrue(Predicate<T> predicate) {
-        return returnThis(stream().filter(predicate));
+        return where(predicate);
     }
 
 
@@ -507,53 +652,71 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
 
     public <K> SDFrame<FI2<K, Long>> groupByCount(Function<T, K> key) {
         Collector<Object, ?, Long> counting = counting();
-        Map<K, Long> collect = stream().collect(groupingBy(key, counting));
+        Map<K, Long> collect = collect(groupingBy(key, counting));
         return returnDF(FrameUtil.toListFI2(collect));
     }
 
 
     public <K, J> SDFrame<FI3<K, J, Long>> groupByCount(Function<T, K> key,
                                                         Function<T, J> key2) {
-        Collector<Object, ?, Long> counting = counting();
-        Map<K, Map<J, Long>> collect = stream().collect(groupingBy(key, groupingBy(key2, counting)));
-        return returnDF(FrameUtil.toListFI3(collect));
+        Collector<T, ?, Long> counting = counting();
+        return returnDF(groupKey(key, key2, counting));
     }
 
 
     public <K, J, H> SDFrame<FI4<K, J, H, Long>> groupByCount(Function<T, K> key,
                                                               Function<T, J> key2,
                                                               Function<T, H> key3) {
-        Collector<Object, ?, Long> counting = counting();
-        Map<K, Map<J, Map<H, Long>>> collect = stream().collect(groupingBy(key, groupingBy(key2, groupingBy(key3, counting))));
-        return returnDF(FrameUtil.toListFI4(collect));
+        Collector<T, ?, Long> counting = counting();
+        return returnDF(groupKey(key, key2, key3, counting));
     }
 
 
     public <K,R extends Number> SDFrame<FI3<K, BigDecimal,Long>> groupBySumCount(Function<T, K> key, NumberFunction<T,R> value) {
-        List<T> dataList = toLists();
-        Collector<T, ?, BigDecimal> tBigDecimalCollector = CollectorsPlusUtil.summingBigDecimalForNumber(value);
-        List<FI2<K, BigDecimal>> sumList = returnDF(dataList).groupKey(key, tBigDecimalCollector);
-        List<FI2<K, Long>> countList =  returnDF(dataList).groupByCount(key).toLists();
-        Map<K, Long> countMap = countList.stream().collect(toMap(FI2::getC1, FI2::getC2));
-        List<FI3<K, BigDecimal, Long>> collect = sumList.stream().map(e -> new FI3<>(e.getC1(), e.getC2(), countMap.get(e.getC1()))).collect(Collectors.toList());
-        return returnDF(collect);
+        return returnDF(groupKeyAgg(key, Agg.sum(value), Agg.count()));
     }
 
 
     public <K, J,R extends Number> SDFrame<FI4<K, J, BigDecimal, Long>> groupBySumCount(Function<T, K> key,
                                                                        Function<T, J> key2,
                                                                        NumberFunction<T,R> value) {
-        List<T> dataList = toLists();
-        Collector<T, ?, BigDecimal> tBigDecimalCollector = CollectorsPlusUtil.summingBigDecimalForNumber(value);
-        List<FI3<K, J, BigDecimal>> sumList = returnDF(dataList).groupKey(key, key2, tBigDecimalCollector);
-        List<FI3<K, J, Long>> countList =  returnDF(dataList).groupByCount(key, key2).toLists();
-        // 合并sum和count字段
-        Map<String, FI3<K, J, Long>> countMap = countList.stream().collect(toMap(e -> e.getC1() + "_" + e.getC2(), Function.identity()));
-        List<FI4<K, J, BigDecimal, Long>> collect = sumList.stream().map(e -> {
-            FI3<K, J, Long> countItem = countMap.get(e.getC1() + "_" + e.getC2());
-            return new FI4<>(e.getC1(), e.getC2(), e.getC3(), countItem.getC3());
-        }).collect(Collectors.toList());
-        return returnDF(collect);
+        return returnDF(groupKeyAgg(key, key2, Agg.sum(value), Agg.count()));
+    }
+
+
+    @Override
+    public <K, R> SDFrame<FI2<K, Long>> groupByApproxCountDistinct(Function<T, K> key, Function<T, R> value, int precision) {
+        return groupByAgg(key, Agg.approxCountDistinct(value, precision));
+    }
+
+    @Override
+    public <K, R> SDFrame<FI2<K, Long>> groupByApproxCountDistinct(Function<T, K> key, Function<T, R> value) {
+        return groupByApproxCountDistinct(key, value, HyperLogLog.DEFAULT_PRECISION);
+    }
+
+    @Override
+    public <K, R> SDFrame<FI2<K, List<Double>>> groupByQuantile(Function<T, K> key, Function<T, R> value, double... quantiles) {
+        return returnDF(groupKey(key, CollectorsPlusUtil.quantile(value, quantiles)));
+    }
+
+    @Override
+    public <K, R1> SDFrame<FI2<K, R1>> groupByAgg(Function<T, K> key, Agg<T, R1> agg) {
+        return returnDF(groupKey(key, agg.collector(defaultScale, defaultRoundingMode)));
+    }
+
+    @Override
+    public <K, R1, R2> SDFrame<FI3<K, R1, R2>> groupByAgg(Function<T, K> key, Agg<T, R1> agg, Agg<T, R2> agg2) {
+        return returnDF(groupKeyAgg(key, agg, agg2));
+    }
+
+    @Override
+    public <K, R1, R2, R3> SDFrame<FI4<K, R1, R2, R3>> groupByAgg(Function<T, K> key, Agg<T, R1> agg, Agg<T, R2> agg2, Agg<T, R3> agg3) {
+        return returnDF(groupKeyAgg(key, agg, agg2, agg3));
+    }
+
+    @Override
+    public <K> SDFrame<FI2<K, List<Object>>> groupByAggs(Function<T, K> key, List<Agg<T, ?>> aggs) {
+        return returnDF(groupKeyAgg(key, aggs));
     }
 
 
@@ -588,14 +751,13 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
     @Override
     public <K, V extends Comparable<? super V>> SDFrame<FI2<K, T>> groupByMax(Function<T, K> key,
                                                                       Function<T, V> value) {
-        Map<K, T> collect = stream().collect(groupingBy(key, collectingAndThen(toList(), getListMaxFunction(value))));
+        Map<K, T> collect = collect(groupingBy(key, groupMaxCollector(value)));
         return returnDF(FrameUtil.toListFI2(collect));
     }
 
     @Override
     public <K, J, V extends Comparable<? super V>> SDFrame<FI3<K, J, T>> groupByMax(Function<T, K> key, Function<T, J> key2, Function<T, V> value) {
-        Map<K, Map<J, T>> collect = groupToMap(key, key2,getListMaxFunction(value));
-        return returnDF(FrameUtil.toListFI3(collect));
+        return returnDF(groupKey(key, key2, groupMaxCollector(value)));
     }
 
     @Override
@@ -611,14 +773,13 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
     @Override
     public <K, V extends Comparable<? super V>> SDFrame<FI2<K, T>> groupByMin(Function<T, K> key,
                                                                       Function<T, V> value) {
-        Map<K, T> collect = stream().collect(groupingBy(key, collectingAndThen(toList(), e -> e.stream().min(Comparator.comparing(value)).orElse(null))));
+        Map<K, T> collect = collect(groupingBy(key, groupMinCollector(value)));
         return returnDF(FrameUtil.toListFI2(collect));
     }
 
     @Override
     public <K, J, V extends Comparable<? super V>> SDFrame<FI3<K, J, T>> groupByMin(Function<T, K> key, Function<T, J> key2, Function<T, V> value) {
-        Map<K, Map<J, T>> collect = groupToMap(key, key2,getListMinFunction(value));
-        return returnDF(FrameUtil.toListFI3(collect));
+        return returnDF(groupKey(key, key2, groupMinCollector(value)));
     }
 
     @Override
@@ -634,7 +795,7 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
     @Override
     public <K, V extends Comparable<? super V>> SDFrame<FI2<K, MaxMin<V>>> groupByMaxMinValue(Function<T, K> key,
                                                                                       Function<T, V> value) {
-        Map<K, MaxMin<V>> map = stream().collect(groupingBy(key, collectingAndThen(toList(), getListGroupMaxMinValueFunction(value))));
+        Map<K, MaxMin<V>> map = collect(groupingBy(key, groupMaxMinValueCollector(value)));
         return returnDF(FrameUtil.toListFI2(map));
     }
 
@@ -642,14 +803,13 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
     public <K, J, V extends Comparable<? super V>> SDFrame<FI3<K, J, MaxMin<V>>> groupByMaxMinValue(Function<T, K> key,
                                                                                             Function<T, J> key2,
                                                                                             Function<T, V> value) {
-        Map<K, Map<J, MaxMin<V>>> map = stream().collect(groupingBy(key, groupingBy(key2, collectingAndThen(toList(), getListGroupMaxMinValueFunction(value)))));
-        return returnDF(FrameUtil.toListFI3(map));
+        return returnDF(groupKey(key, key2, groupMaxMinValueCollector(value)));
     }
 
     @Override
     public <K, V extends Comparable<? super V>> SDFrame<FI2<K, MaxMin<T>>> groupByMaxMin(Function<T, K> key,
                                                                                  Function<T, V> value) {
-        Map<K, MaxMin<T>> map = stream().collect(groupingBy(key, collectingAndThen(toList(), getListGroupMaxMinFunction(value))));
+        Map<K, MaxMin<T>> map = collect(groupingBy(key, groupMaxMinCollector(value)));
         return returnDF(FrameUtil.toListFI2(map));
     }
 
@@ -657,20 +817,20 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
     public <K, J, V extends Comparable<? super V>> SDFrame<FI3<K, J, MaxMin<T>>> groupByMaxMin(Function<T, K> key,
                                                                                        Function<T, J> key2,
                                                                                        Function<T, V> value) {
-        Map<K, Map<J, MaxMin<T>>> map = stream().collect(groupingBy(key, groupingBy(key2, collectingAndThen(toList(), getListGroupMaxMinFunction(value)))));
-        return returnDF(FrameUtil.toListFI3(map));
+        return returnDF(groupKey(key, key2, groupMaxMinCollector(value)));
     }
 
     @Override
     public WindowSDFrame<T> window(Window<T> window) {
-        WindowSDFrameImpl<T> frame = new WindowSDFrameImpl<>(window, stream());
+        // 窗口函数总会物化数据, 先物化后当前的Frame还可以继续使用
+        WindowSDFrameImpl<T> frame = new WindowSDFrameImpl<>(window, toLists().stream());
         transmitMember(this,frame);
         return frame;
     }
 
     @Override
     public WindowSDFrame<T> window() {
-        WindowSDFrameImpl<T> frame = new WindowSDFrameImpl<>(emptyWindow,stream());
+        WindowSDFrameImpl<T> frame = new WindowSDFrameImpl<>(emptyWindow,toLists().stream());
         transmitMember(this,frame);
         return frame;
     }
@@ -877,6 +1037,116 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
         return overAvgS(setFunction, emptyWindow,field);
     }
 
+    @Override
+    public <F> SDFrameImpl<FI2<T, Double>> overQuantile(Window<T> overParam, Function<T, F> field, double quantile) {
+        return returnDF(windowFunctionForQuantile(overParam, field, quantile));
+    }
+
+    @Override
+    public <F> SDFrameImpl<FI2<T, Double>> overQuantile(Function<T, F> field, double quantile) {
+        return overQuantile(emptyWindow, field, quantile);
+    }
+
+    @Override
+    public <F> SDFrameImpl<T> overQuantileS(SetFunction<T, Double> setFunction, Window<T> overParam, Function<T, F> field, double quantile) {
+        return fi2Frame(overQuantile(overParam, field, quantile), setFunction);
+    }
+
+    @Override
+    public <F> SDFrameImpl<T> overQuantileS(SetFunction<T, Double> setFunction, Function<T, F> field, double quantile) {
+        return overQuantileS(setFunction, emptyWindow, field, quantile);
+    }
+
+    @Override
+    public SDFrameImpl<FI2<T, Long>> overSumLong(Window<T> overParam, ToLongFunction<T> field) {
+        return returnDF(windowFunctionForSumLong(overParam, field));
+    }
+
+    @Override
+    public SDFrameImpl<FI2<T, Long>> overSumLong(ToLongFunction<T> field) {
+        return overSumLong(emptyWindow, field);
+    }
+
+    @Override
+    public SDFrameImpl<T> overSumLongS(SetFunction<T, Long> setFunction, Window<T> overParam, ToLongFunction<T> field) {
+        return fi2Frame(overSumLong(overParam, field), setFunction);
+    }
+
+    @Override
+    public SDFrameImpl<T> overSumLongS(SetFunction<T, Long> setFunction, ToLongFunction<T> field) {
+        return overSumLongS(setFunction, emptyWindow, field);
+    }
+
+    @Override
+    public SDFrameImpl<FI2<T, Double>> overSumDouble(Window<T> overParam, ToDoubleFunction<T> field) {
+        return overSumDouble(overParam, field, false);
+    }
+
+    @Override
+    public SDFrameImpl<FI2<T, Double>> overSumDouble(Window<T> overParam, ToDoubleFunction<T> field, boolean compensated) {
+        return returnDF(windowFunctionForSumDouble(overParam, field, false, compensated));
+    }
+
+    @Override
+    public SDFrameImpl<FI2<T, Double>> overSumDouble(ToDoubleFunction<T> field) {
+        return overSumDouble(emptyWindow, field);
+    }
+
+    @Override
+    public SDFrameImpl<T> overSumDoubleS(SetFunction<T, Double> setFunction, Window<T> overParam, ToDoubleFunction<T> field) {
+        return fi2Frame(overSumDouble(overParam, field), setFunction);
+    }
+
+    @Override
+    public SDFrameImpl<T> overSumDoubleS(SetFunction<T, Double> setFunction, ToDoubleFunction<T> field) {
+        return overSumDoubleS(setFunction, emptyWindow, field);
+    }
+
+    @Override
+    public SDFrameImpl<FI2<T, Double>> overAvgDouble(Window<T> overParam, ToDoubleFunction<T> field) {
+        return overAvgDouble(overParam, field, false);
+    }
+
+    @Override
+    public SDFrameImpl<FI2<T, Double>> overAvgDouble(Window<T> overParam, ToDoubleFunction<T> field, boolean compensated) {
+        return returnDF(windowFunctionForSumDouble(overParam, field, true, compensated));
+    }
+
+    @Override
+    public SDFrameImpl<FI2<T, Double>> overAvgDouble(ToDoubleFunction<T> field) {
+        return overAvgDouble(emptyWindow, field);
+    }
+
+    @Override
+    public SDFrameImpl<T> overAvgDoubleS(SetFunction<T, Double> setFunction, Window<T> overParam, ToDoubleFunction<T> field) {
+        return fi2Frame(overAvgDouble(overParam, field), setFunction);
+    }
+
+    @Override
+    public SDFrameImpl<T> overAvgDoubleS(SetFunction<T, Double> setFunction, ToDoubleFunction<T> field) {
+        return overAvgDoubleS(setFunction, emptyWindow, field);
+    }
+
+    @Override
+    public SDFrameImpl<FI2<T, Double>> overAvgLong(Window<T> overParam, ToLongFunction<T> field) {
+        return returnDF(windowFunctionForAvgLong(overParam, field));
+    }
+
+    @Override
+    public SDFrameImpl<FI2<T, Double>> overAvgLong(ToLongFunction<T> field) {
+        return overAvgLong(emptyWindow, field);
+    }
+
+    @Override
+    public SDFrameImpl<T> overAvgLongS(SetFunction<T, Double> setFunction, Window<T> overParam, ToLongFunction<T> field) {
+        return fi2Frame(overAvgLong(overParam, field), setFunction);
+    }
+
+    @Override
+    public SDFrameImpl<T> overAvgLongS(SetFunction<T, Double> setFunction, ToLongFunction<T> field) {
+        return overAvgLongS(setFunction, emptyWindow, field);
+    }
+
     @Override
     public <F extends Comparable<? super F>>  SDFrameImpl<FI2<T, F>> overMaxValue(Window<T> overParam, Function<T, F> field) {
         return returnDF(windowFunctionForMaxValue(overParam,field));
@@ -974,12 +1244,12 @@ public class SDFrameImpl<T>  extends AbstractDataFrameImpl<T> implements SDFrame
     }
 
     protected SDFrameImpl<T> returnThis(Stream<T> stream) {
-        this.data = stream;
+        this.plan = StreamPlan.of(stream);
         return this;
     }
 
     protected SDFrameImpl<T> returnThis(List<T> dataList) {
-        this.data = dataList.stream();
+        this.plan = StreamPlan.of(dataList);
         return this;
     }
 
@@ -7,6 +7,8 @@ import io.github.burukeyou.dataframe.iframe.window.Window;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 
 /**
  * @author  caizhihao
@@ -14,11 +16,29 @@ import java.util.function.Function;
  */
 public class WindowJDFrameImpl<T> extends JDFrameImpl<T> implements WindowJDFrame<T> {
 
+    /**
+     * the frame whose data list is shared, its indexes are invalidated when the window reorders the data
+     */
+    private JDFrameImpl<T> owner;
+
     public WindowJDFrameImpl(Window<T> window, List<T> data) {
         super(data);
         this.window = window;
     }
 
+    public WindowJDFrameImpl(Window<T> window, List<T> data, JDFrameImpl<T> owner) {
+        this(window, data);
+        this.owner = owner;
+    }
+
+    @Override
+    protected void onDataReordered() {
+        super.onDataReordered();
+        if (owner != null) {
+            owner.onDataReordered();
+        }
+    }
+
     protected <R> WindowJDFrameImpl<R> returnWDF(Window<R> window, List<R> stream) {
         WindowJDFrameImpl<R> frame = new WindowJDFrameImpl<>(window, stream);
         transmitMember(this,frame);
@@ -145,6 +165,56 @@ public class WindowJDFrameImpl<T> extends JDFrameImpl<T> implements WindowJDFram
         return returnWDF(this.window, overAvgS(setFunction, this.window, field).toLists());
     }
 
+    @Override
+    public <F> JDFrameImpl<FI2<T, Double>> overQuantile(Function<T, F> field, double quantile) {
+        return overQuantile(this.window, field, quantile);
+    }
+
+    @Override
+    public <F> WindowJDFrameImpl<T> overQuantileS(SetFunction<T, Double> setFunction, Function<T, F> field, double quantile) {
+        return returnWDF(this.window, overQuantileS(setFunction, this.window, field, quantile).toLists());
+    }
+
+    @Override
+    public JDFrameImpl<FI2<T, Long>> overSumLong(ToLongFunction<T> field) {
+        return overSumLong(this.window, field);
+    }
+
+    @Override
+    public WindowJDFrameImpl<T> overSumLongS(SetFunction<T, Long> setFunction, ToLongFunction<T> field) {
+        return returnWDF(this.window, overSumLongS(setFunction, this.window, field).toLists());
+    }
+
+    @Override
+    public JDFrameImpl<FI2<T, Double>> overSumDouble(ToDoubleFunction<T> field) {
+        return overSumDouble(this.window, field);
+    }
+
+    @Override
+    public WindowJDFrameImpl<T> overSumDoubleS(SetFunction<T, Double> setFunction, ToDoubleFunction<T> field) {
+        return returnWDF(this.window, overSumDoubleS(setFunction, this.window, field).toLists());
+    }
+
+    @Override
+    public JDFrameImpl<FI2<T, Double>> overAvgDouble(ToDoubleFunction<T> field) {
+        return overAvgDouble(this.window, field);
+    }
+
+    @Override
+    public WindowJDFrameImpl<T> overAvgDoubleS(SetFunction<T, Double> setFunction, ToDoubleFunction<T> field) {
+        return returnWDF(this.window, overAvgDoubleS(setFunction, this.window, field).toLists());
+    }
+
+    @Override
+    public JDFrameImpl<FI2<T, Double>> overAvgLong(ToLongFunction<T> field) {
+        return overAvgLong(this.window, field);
+    }
+
+    @Override
+    public WindowJDFrameImpl<T> overAvgLongS(SetFunction<T, Double> setFunction, ToLongFunction<T> field) {
+        return returnWDF(this.window, overAvgLongS(setFunction, this.window, field).toLists());
+    }
+
     @Override
     public <F extends Comparable<? super F>> JDFrameImpl<FI2<T, F>> overMaxValue(Function<T, F> field) {
         return super.overMaxValue(this.window,field);
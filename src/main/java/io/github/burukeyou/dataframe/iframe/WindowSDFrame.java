@@ -5,6 +5,8 @@ import io.github.burukeyou.dataframe.iframe.item.FI2;
 
 import java.math.BigDecimal;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 
 /**
  * @author  caizhihao
@@ -190,6 +192,85 @@ public interface WindowSDFrame<T> extends SDFrame<T>  {
      */
     <F> WindowSDFrame<T> overAvgS(SetFunction<T,BigDecimal> setFunction, Function<T,F> field);
 
+    /**
+     * quantile window function
+     *         calculate the exact quantile within the window range, the null value is ignored
+     * @param field                      field value
+     * @param quantile                   the quantile in [0,1], such as 0.5 is median
+     */
+    <F> SDFrame<FI2<T,Double>> overQuantile(Function<T,F> field, double quantile);
+
+    /**
+     * quantile window function
+     *         calculate the exact quantile within the window range, the null value is ignored
+     * @param setFunction                function result accept
+     * @param field                      field value
+     * @param quantile                   the quantile in [0,1], such as 0.5 is median
+     */
+    <F> WindowSDFrame<T> overQuantileS(SetFunction<T,Double> setFunction, Function<T,F> field, double quantile);
+
+    /**
+     * sum window function
+     *         calculate the long sum within the window range without converting to BigDecimal, the empty window is 0, throw ArithmeticException if the sum overflows
+     * @param field                      field value
+     */
+    SDFrame<FI2<T,Long>> overSumLong(ToLongFunction<T> field);
+
+    /**
+     * sum window function
+     *         calculate the long sum within the window range without converting to BigDecimal, the empty window is 0, throw ArithmeticException if the sum overflows
+     * @param setFunction                function result accept
+     * @param field                      field value
+     */
+    WindowSDFrame<T> overSumLongS(SetFunction<T,Long> setFunction, ToLongFunction<T> field);
+
+    /**
+     * sum window function
+     *         calculate the double sum within the window range without converting to BigDecimal, the empty window is 0
+     * @param field                      field value
+     */
+    SDFrame<FI2<T,Double>> overSumDouble(ToDoubleFunction<T> field);
+
+    /**
+     * sum window function
+     *         calculate the double sum within the window range without converting to BigDecimal, the empty window is 0
+     * @param setFunction                function result accept
+     * @param field                      field value
+     */
+    WindowSDFrame<T> overSumDoubleS(SetFunction<T,Double> setFunction, ToDoubleFunction<T> field);
+
+    /**
+     * avg window function
+     *         calculate the double avg within the window range without converting to BigDecimal, the empty window is null
+     * @param field                      field value
+     */
+    SDFrame<FI2<T,Double>> overAvgDouble(ToDoubleFunction<T> field);
+
+    /**
+     * avg window function
+     *         calculate the double avg within the window range without converting to BigDecimal, the empty window is null
+     * @param setFunction                function result accept
+     * @param field                      field value
+     */
+    WindowSDFrame<T> overAvgDoubleS(SetFunction<T,Double> setFunction, ToDoubleFunction<T> field);
+
+    /**
+     * avg window function
+     *         calculate the exact long sum within the window range and divide it once by the row count, the empty window is null,
+     *         throw ArithmeticException if the sum overflows
+     * @param field                      field value
+     */
+    SDFrame<FI2<T,Double>> overAvgLong(ToLongFunction<T> field);
+
+    /**
+     * avg window function
+     *         calculate the exact long sum within the window range and divide it once by the row count, the empty window is null,
+     *         throw ArithmeticException if the sum overflows
+     * @param setFunction                function result accept
+     * @param field                      field value
+     */
+    WindowSDFrame<T> overAvgLongS(SetFunction<T,Double> setFunction, ToLongFunction<T> field);
+
     /**
      * max window function
      *         calculate the max value within the window range
@@ -6,6 +6,8 @@ import io.github.burukeyou.dataframe.iframe.window.Window;
 
 import java.math.BigDecimal;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Stream;
 
 /**
@@ -145,6 +147,56 @@ public class WindowSDFrameImpl<T> extends SDFrameImpl<T> implements WindowSDFram
         return returnWDF(this.window, overAvgS(setFunction, this.window, field).stream());
     }
 
+    @Override
+    public <F> SDFrameImpl<FI2<T, Double>> overQuantile(Function<T, F> field, double quantile) {
+        return overQuantile(this.window, field, quantile);
+    }
+
+    @Override
+    public <F> WindowSDFrameImpl<T> overQuantileS(SetFunction<T, Double> setFunction, Function<T, F> field, double quantile) {
+        return returnWDF(this.window, overQuantileS(setFunction, this.window, field, quantile).stream());
+    }
+
+    @Override
+    public SDFrameImpl<FI2<T, Long>> overSumLong(ToLongFunction<T> field) {
+        return overSumLong(this.window, field);
+    }
+
+    @Override
+    public WindowSDFrameImpl<T> overSumLongS(SetFunction<T, Long> setFunction, ToLongFunction<T> field) {
+        return returnWDF(this.window, overSumLongS(setFunction, this.window, field).stream());
+    }
+
+    @Override
+    public SDFrameImpl<FI2<T, Double>> overSumDouble(ToDoubleFunction<T> field) {
+        return overSumDouble(this.window, field);
+    }
+
+    @Override
+    public WindowSDFrameImpl<T> overSumDoubleS(SetFunction<T, Double> setFunction, ToDoubleFunction<T> field) {
+        return returnWDF(this.window, overSumDoubleS(setFunction, this.window, field).stream());
+    }
+
+    @Override
+    public SDFrameImpl<FI2<T, Double>> overAvgDouble(ToDoubleFunction<T> field) {
+        return overAvgDouble(this.window, field);
+    }
+
+    @Override
+    public WindowSDFrameImpl<T> overAvgDoubleS(SetFunction<T, Double> setFunction, ToDoubleFunction<T> field) {
+        return returnWDF(this.window, overAvgDoubleS(setFunction, this.window, field).stream());
+    }
+
+    @Override
+    public SDFrameImpl<FI2<T, Double>> overAvgLong(ToLongFunction<T> field) {
+        return overAvgLong(this.window, field);
+    }
+
+    @Override
+    public WindowSDFrameImpl<T> overAvgLongS(SetFunction<T, Double> setFunction, ToLongFunction<T> field) {
+        return returnWDF(this.window, overAvgLongS(setFunction, this.window, field).stream());
+    }
+
     @Override
     public <F extends Comparable<? super F>> SDFrameImpl<FI2<T, F>> overMaxValue(Function<T, F> field) {
         return super.overMaxValue(this.window,field);
@@ -0,0 +1,131 @@
+package io.github.burukeyou.dataframe.iframe.index;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Hash index on a frame column
+ *      map the key to the row positions of the frame, the positions of each key are in the frame order.
+ *      the rows appended to the end of frame are indexed on the next lookup, and the index is rebuilt after the frame is reordered
+ *
+ * @param <K> the key type
+ * @param <T> the row type
+ * @author caizhihao
+ */
+public class FrameIndex<K, T> {
+
+    private final List<T> dataList;
+
+    private final Function<T, K> keyFunction;
+
+    private Map<K, List<Integer>> positionMap = new HashMap<>();
+
+    /**
+     * the number of rows has been indexed
+     */
+    private int indexedSize;
+
+    /**
+     * need rebuild before next lookup
+     */
+    private boolean stale;
+
+    public FrameIndex(List<T> dataList, Function<T, K> keyFunction) {
+        this.dataList = dataList;
+        this.keyFunction = keyFunction;
+        rebuild();
+    }
+
+    public Function<T, K> getKeyFunction() {
+        return keyFunction;
+    }
+
+    /**
+     * get the rows of key in the frame order
+     */
+    public List<T> get(K key) {
+        refresh();
+        List<Integer> positionList = positionMap.get(key);
+        if (positionList == null) {
+            return new ArrayList<>();
+        }
+        List<T> resultList = new ArrayList<>(positionList.size());
+        for (Integer position : positionList) {
+            resultList.add(dataList.get(position));
+        }
+        return resultList;
+    }
+
+    /**
+     * get the rows of any keys in the frame order
+     */
+    public List<T> getAll(Collection<? extends K> keys) {
+        refresh();
+        Set<K> keySet = new HashSet<>(keys);
+        int size = 0;
+        List<List<Integer>> hitList = new ArrayList<>(keySet.size());
+        for (K key : keySet) {
+            List<Integer> positionList = positionMap.get(key);
+            if (positionList != null) {
+                hitList.add(positionList);
+                size += positionList.size();
+            }
+        }
+        int[] positions = new int[size];
+        int index = 0;
+        for (List<Integer> positionList : hitList) {
+            for (Integer position : positionList) {
+                positions[index++] = position;
+            }
+        }
+        if (hitList.size() > 1) {
+            Arrays.sort(positions);
+        }
+        List<T> resultList = new ArrayList<>(size);
+        for (int position : positions) {
+            resultList.add(dataList.get(position));
+        }
+        return resultList;
+    }
+
+    public boolean containsKey(K key) {
+        refresh();
+        return positionMap.containsKey(key);
+    }
+
+    /**
+     * the distinct keys
+     */
+    public Set<K> keys() {
+        refresh();
+        return Collections.unmodifiableSet(positionMap.keySet());
+    }
+
+    /**
+     * mark the index to rebuild, such as the frame has been sorted
+     */
+    public void invalidate() {
+        this.stale = true;
+    }
+
+    /**
+     * index the appended rows, or rebuild if the frame is reordered or shrunk
+     */
+    public void refresh() {
+        if (stale || dataList.size() < indexedSize) {
+            rebuild();
+            return;
+        }
+        for (int i = indexedSize; i < dataList.size(); i++) {
+            positionMap.computeIfAbsent(keyFunction.apply(dataList.get(i)), k -> new ArrayList<>(1)).add(i);
+        }
+        indexedSize = dataList.size();
+    }
+
+    private void rebuild() {
+        positionMap = new HashMap<>();
+        indexedSize = 0;
+        stale = false;
+        refresh();
+    }
+}
@@ -0,0 +1,200 @@
+package io.github.burukeyou.dataframe.iframe.index;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Sorted index on a frame column
+ *      the keys and row positions are stored in arrays sorted by key, the range of k hit rows is found by binary search in O(log n).
+ *      the rows and keys which are null are not indexed, the result rows are in the frame order,
+ *      which costs O(k log k) to sort the hit positions, or O(n) to scan a bitmap of them when k log k is greater than n.
+ *      the index is rebuilt on the next lookup after the frame is changed or reordered
+ *
+ * @param <R> the key type
+ * @param <T> the row type
+ * @author caizhihao
+ */
+public class SortedFrameIndex<R extends Comparable<R>, T> {
+
+    private final List<T> dataList;
+
+    private final Function<T, R> keyFunction;
+
+    private Object[] sortedKeys;
+
+    /**
+     * the row position of sortedKeys
+     */
+    private int[] positions;
+
+    /**
+     * the frame size when indexed
+     */
+    private int indexedSize;
+
+    /**
+     * need rebuild before next lookup
+     */
+    private boolean stale;
+
+    public SortedFrameIndex(List<T> dataList, Function<T, R> keyFunction) {
+        this.dataList = dataList;
+        this.keyFunction = keyFunction;
+        rebuild();
+    }
+
+    public Function<T, R> getKeyFunction() {
+        return keyFunction;
+    }
+
+    /**
+     * get the rows whose key is in the range
+     *
+     * @param start             the start of range, null means unbounded
+     * @param includeStart      whether include the start
+     * @param end               the end of range, null means unbounded
+     * @param includeEnd        whether include the end
+     */
+    public List<T> range(R start, boolean includeStart, R end, boolean includeEnd) {
+        refresh();
+        int from = start == null ? 0 : (includeStart ? lowerBound(start) : upperBound(start));
+        int to = end == null ? sortedKeys.length : (includeEnd ? upperBound(end) : lowerBound(end));
+        if (from >= to) {
+            return new ArrayList<>();
+        }
+        return toRows(from, to, 0, 0);
+    }
+
+    /**
+     * get the rows whose key is less than the start or greater than the end
+     *
+     * @param start             the start of range
+     * @param includeStart      whether the key equals start is kept
+     * @param end               the end of range
+     * @param includeEnd        whether the key equals end is kept
+     */
+    public List<T> outside(R start, boolean includeStart, R end, boolean includeEnd) {
+        refresh();
+        int to = includeStart ? upperBound(start) : lowerBound(start);
+        int from = includeEnd ? lowerBound(end) : upperBound(end);
+        if (from <= to) {
+            return toRows(0, sortedKeys.length, 0, 0);
+        }
+        return toRows(0, to, from, sortedKeys.length);
+    }
+
+    /**
+     * mark the index to rebuild, such as the frame has been sorted
+     */
+    public void invalidate() {
+        this.stale = true;
+    }
+
+    /**
+     * rebuild if the frame is changed or reordered
+     *      the size check only finds appended or removed rows, an in place reorder must be reported by invalidate,
+     *      which the owner frame does for its own sorting and for the window frames sharing its data
+     */
+    public void refresh() {
+        if (stale || dataList.size() != indexedSize) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        int n = dataList.size();
+        Object[] keyArr = new Object[n];
+        Integer[] positionArr = new Integer[n];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            T t = dataList.get(i);
+            R key = t == null ? null : keyFunction.apply(t);
+            if (key != null) {
+                keyArr[i] = key;
+                positionArr[size++] = i;
+            }
+        }
+        // 稳定排序, 相同key的行保持原来的顺序
+        Arrays.sort(positionArr, 0, size, (a, b) -> compare(keyArr[a], keyArr[b]));
+        this.sortedKeys = new Object[size];
+        this.positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            sortedKeys[i] = keyArr[positionArr[i]];
+            positions[i] = positionArr[i];
+        }
+        this.indexedSize = n;
+        this.stale = false;
+    }
+
+    /**
+     * the rows of [from1,to1) and [from2,to2) in the frame order
+     */
+    private List<T> toRows(int from1, int to1, int from2, int to2) {
+        int k = (to1 - from1) + (to2 - from2);
+        List<T> resultList = new ArrayList<>(k);
+        if (k == 0) {
+            return resultList;
+        }
+        // 命中的行较多时用位图按原顺序扫描, 否则直接对位置排序
+        if ((long) k * (32 - Integer.numberOfLeadingZeros(k)) > dataList.size()) {
+            BitSet bitSet = new BitSet(dataList.size());
+            for (int i = from1; i < to1; i++) {
+                bitSet.set(positions[i]);
+            }
+            for (int i = from2; i < to2; i++) {
+                bitSet.set(positions[i]);
+            }
+            for (int i = bitSet.nextSetBit(0); i >= 0; i = bitSet.nextSetBit(i + 1)) {
+                resultList.add(dataList.get(i));
+            }
+            return resultList;
+        }
+        int[] hitArr = new int[k];
+        System.arraycopy(positions, from1, hitArr, 0, to1 - from1);
+        System.arraycopy(positions, from2, hitArr, to1 - from1, to2 - from2);
+        Arrays.sort(hitArr);
+        for (int position : hitArr) {
+            resultList.add(dataList.get(position));
+        }
+        return resultList;
+    }
+
+    /**
+     * the first index whose key is greater than or equal to the key
+     */
+    private int lowerBound(R key) {
+        int low = 0;
+        int high = sortedKeys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(sortedKeys[mid], key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * the first index whose key is greater than the key
+     */
+    private int upperBound(R key) {
+        int low = 0;
+        int high = sortedKeys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(sortedKeys[mid], key) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(Object a, Object b) {
+        return ((R) a).compareTo((R) b);
+    }
+}
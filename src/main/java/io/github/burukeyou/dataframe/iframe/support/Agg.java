@@ -0,0 +1,112 @@
+package io.github.burukeyou.dataframe.iframe.support;
+
+import io.github.burukeyou.dataframe.util.CollectorsPlusUtil;
+import io.github.burukeyou.dataframe.util.HyperLogLog;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregate function of group
+ *      several aggregates of one group are computed in the same scan,
+ *      such as groupByAgg(key, Agg.sum(f), Agg.count())
+ *
+ * @param <T> the row type
+ * @param <R> the aggregate result type
+ * @author caizhihao
+ */
+public class Agg<T, R> {
+
+    /**
+     * create the collector with the scale and rounding mode of frame
+     */
+    private final BiFunction<Integer, RoundingMode, Collector<T, ?, R>> collectorFactory;
+
+    private Agg(BiFunction<Integer, RoundingMode, Collector<T, ?, R>> collectorFactory) {
+        this.collectorFactory = collectorFactory;
+    }
+
+    /**
+     * the collector of aggregate
+     *
+     * @param scale        the scale of average
+     * @param roundingMode the rounding mode of average
+     */
+    public Collector<T, ?, R> collector(int scale, RoundingMode roundingMode) {
+        return collectorFactory.apply(scale, roundingMode);
+    }
+
+    /**
+     * sum the field, the null value is ignored
+     */
+    public static <T, R extends Number> Agg<T, BigDecimal> sum(NumberFunction<T, R> value) {
+        return new Agg<>((scale, roundingMode) -> CollectorsPlusUtil.summingBigDecimalForNumber(value));
+    }
+
+    /**
+     * count the rows
+     */
+    public static <T> Agg<T, Long> count() {
+        return new Agg<>((scale, roundingMode) -> Collectors.counting());
+    }
+
+    /**
+     * average the field with the default scale of frame, the null value is ignored
+     */
+    public static <T, R extends Number> Agg<T, BigDecimal> avg(NumberFunction<T, R> value) {
+        return new Agg<>((scale, roundingMode) -> CollectorsPlusUtil.averagingBigDecimal(value, scale, roundingMode));
+    }
+
+    /**
+     * average the field, the null value is ignored
+     *
+     * @param scale        the scale of average
+     * @param roundingMode the rounding mode of average
+     */
+    public static <T, R extends Number> Agg<T, BigDecimal> avg(NumberFunction<T, R> value, int scale, RoundingMode roundingMode) {
+        return new Agg<>((frameScale, frameRoundingMode) -> CollectorsPlusUtil.averagingBigDecimal(value, scale, roundingMode));
+    }
+
+    /**
+     * the max value of field, the null value is ignored
+     */
+    public static <T, R extends Comparable<? super R>> Agg<T, R> max(Function<T, R> value) {
+        return new Agg<>((scale, roundingMode) -> CollectorsPlusUtil.maxValue(value));
+    }
+
+    /**
+     * the min value of field, the null value is ignored
+     */
+    public static <T, R extends Comparable<? super R>> Agg<T, R> min(Function<T, R> value) {
+        return new Agg<>((scale, roundingMode) -> CollectorsPlusUtil.minValue(value));
+    }
+
+    /**
+     * approximate count distinct of the field by HyperLogLog, the null value is ignored
+     *
+     * @param precision the precision of HyperLogLog, see {@link HyperLogLog#precisionOf(double)}
+     */
+    public static <T, R> Agg<T, Long> approxCountDistinct(Function<T, R> value, int precision) {
+        return new Agg<>((scale, roundingMode) -> Collectors.collectingAndThen(CollectorsPlusUtil.hyperLogLog(value, precision), HyperLogLog::cardinality));
+    }
+
+    /**
+     * approximate quantile of the field by t-digest, the null value is ignored
+     *
+     * @param quantile the quantile in [0,1], such as 0.5 is median
+     */
+    public static <T, R> Agg<T, Double> quantile(Function<T, R> value, double quantile) {
+        return new Agg<>((scale, roundingMode) -> Collectors.collectingAndThen(CollectorsPlusUtil.quantile(value, quantile), e -> e.get(0)));
+    }
+
+    /**
+     * custom aggregate by collector
+     */
+    public static <T, R> Agg<T, R> of(Collector<T, ?, R> collector) {
+        return new Agg<>((scale, roundingMode) -> collector);
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.burukeyou.dataframe.iframe.support;
+
+import io.github.burukeyou.dataframe.util.BloomFilter;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Bloom filter option for join
+ *      a bloom filter is built from the small side, the rows of the other side that are rejected by the filter skip the hash lookup.
+ *      the option is immutable and can be shared by joins, every join builds its own filter
+ *      and passes its counters to the listener once the join is done, see {@link #withListener(Consumer)}
+ *
+ * @author caizhihao
+ */
+public class BloomOption {
+
+    /**
+     * the expected false positive probability
+     */
+    private final double fpp;
+
+    /**
+     * the number of bits of filter, 0 means computed by the fpp
+     */
+    private final int bitSize;
+
+    /**
+     * accept the counters of each join, may be null
+     */
+    private final Consumer<BloomStats> listener;
+
+    private BloomOption(double fpp, int bitSize, Consumer<BloomStats> listener) {
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("fpp must be in (0,1) but is " + fpp);
+        }
+        this.fpp = fpp;
+        this.bitSize = bitSize;
+        this.listener = listener;
+    }
+
+    /**
+     * the default false positive probability is 0.01
+     */
+    public static BloomOption of() {
+        return new BloomOption(0.01, 0, null);
+    }
+
+    /**
+     * @param fpp           the expected false positive probability
+     */
+    public static BloomOption of(double fpp) {
+        return new BloomOption(fpp, 0, null);
+    }
+
+    /**
+     * @param fpp           the expected false positive probability
+     * @param bitSize       the number of bits of filter
+     */
+    public static BloomOption of(double fpp, int bitSize) {
+        return new BloomOption(fpp, bitSize, null);
+    }
+
+    /**
+     * a copy of this option whose joins pass their own counters to the listener,
+     *      the listener is called once per join in the thread which runs the join, so it must be thread safe if the option is used by concurrent joins
+     * @param listener          accept the counters of each join
+     */
+    public BloomOption withListener(Consumer<BloomStats> listener) {
+        return new BloomOption(fpp, bitSize, Objects.requireNonNull(listener));
+    }
+
+    /**
+     * build a new filter for one join
+     */
+    public BloomFilter newFilter(int expectedSize) {
+        return new BloomFilter(expectedSize, fpp, bitSize);
+    }
+
+    /**
+     * pass the counters of the filter to the listener after the join is done
+     */
+    public void report(BloomFilter bloomFilter) {
+        if (listener != null) {
+            listener.accept(new BloomStats(bloomFilter.getBitSize(), bloomFilter.getProbeCount(), bloomFilter.getRejectCount()));
+        }
+    }
+
+    public double getFpp() {
+        return fpp;
+    }
+
+    /**
+     * the configured number of bits, 0 means computed by the fpp
+     */
+    public int getBitSize() {
+        return bitSize;
+    }
+
+    @Override
+    public String toString() {
+        return "BloomOption(fpp=" + fpp + ", bitSize=" + bitSize + ")";
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.burukeyou.dataframe.iframe.support;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The counters of the bloom filter built by one join
+ *
+ * @author caizhihao
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class BloomStats {
+
+    /**
+     * the number of bits of the filter
+     */
+    private final int bitSize;
+
+    /**
+     * the number of rows tested by the filter
+     */
+    private final long probeCount;
+
+    /**
+     * the number of rows rejected by the filter
+     */
+    private final long rejectCount;
+}
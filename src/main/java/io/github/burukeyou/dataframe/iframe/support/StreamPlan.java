@@ -0,0 +1,262 @@
+package io.github.burukeyou.dataframe.iframe.support;
+
+import io.github.burukeyou.dataframe.util.CollectorsPlusUtil;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy logical plan of SDFrame
+ *      the operators are recorded on the source and only run at the terminal operation as one stream pipeline.
+ *      adjacent filters are fused into one predicate, adjacent sorts into one comparator and adjacent limits into one.
+ *      a sort followed by a limit is run as a bounded heap instead of a full sort.
+ *      the result is materialized at most once and reused by the following operations
+ *
+ * @param <T> the row type
+ * @author caizhihao
+ */
+public class StreamPlan<T> {
+
+    private static final String CONSUMED_MSG = "stream has already been operated upon or closed";
+
+    /**
+     * the materialized rows
+     */
+    private List<T> source;
+
+    /**
+     * whether the source list is created by the plan, the list from outside is copied before exposed
+     */
+    private boolean sourceOwned;
+
+    /**
+     * the one-shot source, it is null when the source is a list or has been consumed
+     */
+    private Stream<T> sourceStream;
+
+    private final List<Node<T>> nodes = new ArrayList<>();
+
+    private StreamPlan() {
+    }
+
+    public static <T> StreamPlan<T> of(List<T> list) {
+        StreamPlan<T> plan = new StreamPlan<>();
+        plan.source = list;
+        return plan;
+    }
+
+    public static <T> StreamPlan<T> of(Stream<T> stream) {
+        StreamPlan<T> plan = new StreamPlan<>();
+        plan.sourceStream = stream;
+        return plan;
+    }
+
+    public StreamPlan<T> filter(Predicate<? super T> predicate) {
+        Node<T> last = lastNode();
+        if (last != null && last.type == NodeType.FILTER) {
+            Predicate<? super T> pre = last.predicate;
+            last.predicate = e -> pre.test(e) && predicate.test(e);
+        } else {
+            nodes.add(Node.filter(predicate));
+        }
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    public StreamPlan<T> sort(Comparator<? super T> comparator) {
+        Node<T> last = lastNode();
+        if (last != null && last.type == NodeType.SORT) {
+            // 排序是稳定的, 后一次排序为主, 前一次排序决定相同元素的顺序
+            last.comparator = ((Comparator<T>) comparator).thenComparing((Comparator<T>) last.comparator);
+        } else {
+            nodes.add(Node.sort(comparator));
+        }
+        return this;
+    }
+
+    public StreamPlan<T> limit(long n) {
+        Node<T> last = lastNode();
+        if (last != null && last.type == NodeType.LIMIT) {
+            last.limit = Math.min(last.limit, n);
+        } else {
+            nodes.add(Node.limit(n));
+        }
+        return this;
+    }
+
+    /**
+     * add an operator that the plan does not know, such as distinct
+     */
+    public StreamPlan<T> then(UnaryOperator<Stream<T>> operator) {
+        nodes.add(Node.stage(operator));
+        return this;
+    }
+
+    /**
+     * a new plan whose source is the mapped stream of this plan, the map is run in the same pipeline
+     */
+    public <R> StreamPlan<R> map(Function<? super T, ? extends R> map) {
+        return StreamPlan.of(stream().map(map));
+    }
+
+    /**
+     * build the stream pipeline of plan
+     */
+    public Stream<T> stream() {
+        Stream<T> stream;
+        if (source != null) {
+            stream = source.stream();
+        } else {
+            if (sourceStream == null) {
+                throw new IllegalStateException(CONSUMED_MSG);
+            }
+            stream = sourceStream;
+            sourceStream = null;
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            Node<T> node = nodes.get(i);
+            Node<T> next = i + 1 < nodes.size() ? nodes.get(i + 1) : null;
+            if (node.type == NodeType.SORT && next != null && next.type == NodeType.LIMIT) {
+                // 排序后截取前n个, 用大小为n的堆代替全排序
+                stream = topN(stream, node.comparator, next.limit);
+                i++;
+            } else {
+                stream = node.apply(stream);
+            }
+        }
+        return stream;
+    }
+
+    /**
+     * the first n rows of the stable sort, the heap is only filled at the terminal operation
+     */
+    private static <T> Stream<T> topN(Stream<T> stream, Comparator<? super T> comparator, long n) {
+        if (n <= 0) {
+            stream.close();
+            return Stream.empty();
+        }
+        int limit = (int) Math.min(n, Integer.MAX_VALUE);
+        Supplier<Spliterator<T>> supplier = () -> stream.collect(CollectorsPlusUtil.sortedLimit(comparator, limit)).spliterator();
+        return StreamSupport.stream(supplier, Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED, stream.isParallel());
+    }
+
+    /**
+     * run the plan and keep the result as the new source
+     */
+    public List<T> toList() {
+        if (source != null && nodes.isEmpty()) {
+            if (!sourceOwned) {
+                source = new ArrayList<>(source);
+                sourceOwned = true;
+            }
+            return source;
+        }
+        List<T> list = stream().collect(Collectors.toList());
+        source = list;
+        sourceOwned = true;
+        sourceStream = null;
+        nodes.clear();
+        return list;
+    }
+
+    /**
+     * count without running the plan if it only sorts and limits the source list
+     */
+    public long count() {
+        if (source != null) {
+            long size = source.size();
+            boolean sizeKnown = true;
+            for (Node<T> node : nodes) {
+                if (node.type == NodeType.LIMIT) {
+                    size = Math.min(size, node.limit);
+                } else if (node.type != NodeType.SORT) {
+                    sizeKnown = false;
+                    break;
+                }
+            }
+            if (sizeKnown) {
+                return size;
+            }
+        }
+        return toList().size();
+    }
+
+    /**
+     * the first row, null if empty
+     */
+    public T first() {
+        List<T> list = toList();
+        return list.isEmpty() ? null : list.get(0);
+    }
+
+    private Node<T> lastNode() {
+        return nodes.isEmpty() ? null : nodes.get(nodes.size() - 1);
+    }
+
+    private enum NodeType {
+        FILTER, SORT, LIMIT, STAGE
+    }
+
+    private static class Node<T> {
+
+        private final NodeType type;
+
+        private Predicate<? super T> predicate;
+
+        private Comparator<? super T> comparator;
+
+        private long limit;
+
+        private UnaryOperator<Stream<T>> operator;
+
+        private Node(NodeType type) {
+            this.type = type;
+        }
+
+        static <T> Node<T> filter(Predicate<? super T> predicate) {
+            Node<T> node = new Node<>(NodeType.FILTER);
+            node.predicate = predicate;
+            return node;
+        }
+
+        static <T> Node<T> sort(Comparator<? super T> comparator) {
+            Node<T> node = new Node<>(NodeType.SORT);
+            node.comparator = comparator;
+            return node;
+        }
+
+        static <T> Node<T> limit(long n) {
+            Node<T> node = new Node<>(NodeType.LIMIT);
+            node.limit = Math.max(n, 0);
+            return node;
+        }
+
+        static <T> Node<T> stage(UnaryOperator<Stream<T>> operator) {
+            Node<T> node = new Node<>(NodeType.STAGE);
+            node.operator = operator;
+            return node;
+        }
+
+        Stream<T> apply(Stream<T> stream) {
+            switch (type) {
+                case FILTER:
+                    return stream.filter(predicate);
+                case SORT:
+                    return stream.sorted(comparator);
+                case LIMIT:
+                    return stream.limit(limit);
+                default:
+                    return operator.apply(stream);
+            }
+        }
+    }
+}
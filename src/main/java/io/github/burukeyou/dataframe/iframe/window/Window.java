@@ -30,7 +30,7 @@ public interface Window<T>  {
      * @param sortField                sort fields
      */
     static <T,U extends Comparable<? super U>> Window<T> sortAscBy(Function<T,U> sortField){
-        return new WindowBuilder<>(Sorter.sortAscBy(sortField));
+        return new WindowBuilder<T>().sortAsc(sortField);
     }
 
     /**
@@ -38,7 +38,7 @@ public interface Window<T>  {
      * @param sortField                  sort fields
      */
     static <T,U extends Comparable<? super U>> Window<T> sortDescBy(Function<T,U> sortField){
-        return new WindowBuilder<>(Sorter.sortDescBy(sortField));
+        return new WindowBuilder<T>().sortDesc(sortField);
     }
 
     /**
@@ -186,11 +186,25 @@ public interface Window<T>  {
      */
     Window<T> roundBeforeAfter(int before, int after);
 
+    /**
+     * find the partitions by sorting once with the partition fields and the window comparator, instead of hashing the partition fields
+     *      the partition field value must be Comparable, and the partitions are in ascending order of the partition fields.
+     *      the whole sort costs O(n log n) comparisons while the default hash path only sorts inside each partition,
+     *      so it pays off only with few large partitions or when the ascending partition order is needed,
+     *      with many small partitions the default is several times faster
+     */
+    Window<T> partitionBySort();
+
     /**
      * get partitions info
      */
     List<Function<T, ?>> partitions();
 
+    /**
+     * whether find the partitions by sorting
+     */
+    boolean isPartitionBySort();
+
     /**
      *   get window comparator
      */
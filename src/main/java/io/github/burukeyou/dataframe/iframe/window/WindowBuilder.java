@@ -1,6 +1,7 @@
 package io.github.burukeyou.dataframe.iframe.window;
 
 import io.github.burukeyou.dataframe.iframe.window.round.Range;
+import io.github.burukeyou.dataframe.iframe.window.round.ValueRange;
 import io.github.burukeyou.dataframe.iframe.window.round.WindowRange;
 
 import java.util.Comparator;
@@ -20,6 +21,15 @@ public class WindowBuilder<T>  implements Window<T> {
 
     private WindowRange endRange;
 
+    private boolean partitionBySort;
+
+    /**
+     * the first sort field, the sort value of the value range
+     */
+    private Function<T,?> sortField;
+
+    private boolean sortFieldAsc;
+
     public WindowBuilder() {
     }
 
@@ -44,6 +54,14 @@ public class WindowBuilder<T>  implements Window<T> {
         if (endRange == null){
             this.endRange = Range.END_ROW;
         }
+
+        if (startRange instanceof ValueRange){
+            this.startRange = ((ValueRange) startRange).bind(sortField, sortFieldAsc);
+        }
+
+        if (endRange instanceof ValueRange){
+            this.endRange = ((ValueRange) endRange).bind(sortField, sortFieldAsc);
+        }
     }
 
     @Override
@@ -63,9 +81,22 @@ public class WindowBuilder<T>  implements Window<T> {
         return groupBy;
     }
 
+    @Override
+    public Window<T> partitionBySort() {
+        this.partitionBySort = true;
+        return this;
+    }
+
+    @Override
+    public boolean isPartitionBySort() {
+        return partitionBySort;
+    }
+
     public <U extends Comparable<? super U>> Window<T> sortAsc(Function<T,U> sortField) {
         if (sorter == null){
             this.sorter = Sorter.sortAscBy(sortField);
+            this.sortField = sortField;
+            this.sortFieldAsc = true;
         }else {
             sorter.sortAsc(sortField);
         }
@@ -75,6 +106,8 @@ public class WindowBuilder<T>  implements Window<T> {
     public <U extends Comparable<? super U>> Window<T> sortDesc(Function<T,U> sortField) {
         if (sorter == null){
             this.sorter = Sorter.sortDescBy(sortField);
+            this.sortField = sortField;
+            this.sortFieldAsc = false;
         }else {
             sorter.sortDesc(sortField);
         }
@@ -24,6 +24,11 @@ public class AfterRange implements WindowRange {
         }
     }
 
+    @Override
+    public boolean isSlidingByRow() {
+        return true;
+    }
+
     @Override
     public <T> Integer getStartIndex(Integer currentRowIndex, List<T> windowList) {
         return null;
@@ -24,6 +24,11 @@ public class BeforeRange implements WindowRange {
        }
     }
 
+    @Override
+    public boolean isSlidingByRow() {
+        return true;
+    }
+
     @Override
     public <T> Integer getStartIndex(Integer currentRowIndex, List<T> windowList) {
         return  currentRowIndex - n;
@@ -9,6 +9,11 @@ import java.util.List;
  */
 public class CurrentRowRange implements WindowRange {
 
+    @Override
+    public boolean isSlidingByRow() {
+        return true;
+    }
+
     @Override
     public <T> Integer getStartIndex(Integer currentRowIndex, List<T> windowList) {
         return currentRowIndex;
@@ -1,5 +1,7 @@
 package io.github.burukeyou.dataframe.iframe.window.round;
 
+import java.time.temporal.TemporalAmount;
+
 /**
  * WindowRange Builder
  *
@@ -50,4 +52,32 @@ public class Range {
         return new AfterRange(n);
     }
 
+    /**
+     *  The rows whose sort value is not before the current sort value minus n, n is the distance of the number sort value
+     */
+    public static WindowRange BEFORE_VALUE(Number n){
+        return new ValueRange(n, true);
+    }
+
+    /**
+     *  The rows whose sort value is not before the current sort value minus the duration or period, for the time sort value
+     */
+    public static WindowRange BEFORE_VALUE(TemporalAmount amount){
+        return new ValueRange(amount, true);
+    }
+
+    /**
+     *  The rows whose sort value is not after the current sort value plus n, n is the distance of the number sort value
+     */
+    public static WindowRange AFTER_VALUE(Number n){
+        return new ValueRange(n, false);
+    }
+
+    /**
+     *  The rows whose sort value is not after the current sort value plus the duration or period, for the time sort value
+     */
+    public static WindowRange AFTER_VALUE(TemporalAmount amount){
+        return new ValueRange(amount, false);
+    }
+
 }
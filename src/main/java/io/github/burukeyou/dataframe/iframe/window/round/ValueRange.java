@@ -0,0 +1,253 @@
+package io.github.burukeyou.dataframe.iframe.window.round;
+
+import io.github.burukeyou.dataframe.util.MathUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAmount;
+import java.time.temporal.TemporalUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The rows whose sort value is within a distance before or after the sort value of the current row, the same as the sql RANGE frame.
+ *      the sort value is the first sort field of the window, which must be specified by sortAsc or sortDesc.
+ *      the distance is a number for the number sort value, or a Duration/Period for the time sort value, the Date sort value is shifted in the system default zone.
+ *      as the start boundary it is the first row not before the boundary value, as the end boundary it is the last row not after the boundary value,
+ *      so AFTER_VALUE(0) as the end boundary includes the rows of the same sort value as the current row.
+ *
+ * @author caizhihao
+ */
+public class ValueRange implements WindowRange {
+
+    /**
+     * Number or TemporalAmount
+     */
+    private final Object distance;
+
+    /**
+     * the boundary value is before the current value in the window order
+     */
+    private final boolean before;
+
+    private final Function<Object, ?> sortField;
+
+    private final boolean asc;
+
+    public ValueRange(Object distance, boolean before) {
+        this(distance, before, null, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ValueRange(Object distance, boolean before, Function<?, ?> sortField, boolean asc) {
+        this.distance = distance;
+        this.before = before;
+        this.sortField = (Function<Object, ?>) sortField;
+        this.asc = asc;
+    }
+
+    /**
+     * bind the sort field of the window
+     * @param sortField             the first sort field of the window
+     * @param asc                   is the sort field ascending
+     */
+    public ValueRange bind(Function<?, ?> sortField, boolean asc) {
+        if (sortField == null) {
+            throw new IllegalArgumentException("The value range requires the window sorted by sortAsc or sortDesc");
+        }
+        return new ValueRange(distance, before, sortField, asc);
+    }
+
+    @Override
+    public void check() {
+        if (distance == null) {
+            throw new IllegalArgumentException("Boundary distance cannot be null");
+        }
+        if (distance instanceof Number && MathUtils.toBigDecimal(distance).signum() < 0) {
+            throw new IllegalArgumentException("Boundary parameter values cannot be negative");
+        }
+        if (distance instanceof TemporalAmount && isNegative((TemporalAmount) distance)) {
+            throw new IllegalArgumentException("Boundary parameter values cannot be negative");
+        }
+    }
+
+    @Override
+    public <T> Integer getStartIndex(Integer currentRowIndex, List<T> windowList) {
+        Object bound = getBoundValue(getSortValue(windowList, currentRowIndex));
+        // 第一个不在边界值之前的行
+        int low = 0;
+        int high = windowList.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareInOrder(getSortValue(windowList, mid), bound) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public <T> Integer getEndIndex(Integer currentRowIndex, List<T> windowList) {
+        Object bound = getBoundValue(getSortValue(windowList, currentRowIndex));
+        // 最后一个不在边界值之后的行
+        int low = 0;
+        int high = windowList.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareInOrder(getSortValue(windowList, mid), bound) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low - 1;
+    }
+
+    @Override
+    public <T> int[] getStartIndexes(List<T> windowList) {
+        Object[] values = getSortValues(windowList);
+        int[] indexes = new int[values.length];
+        // 边界值随当前行单调移动, 双指针一次遍历
+        int pointer = 0;
+        for (int i = 0; i < values.length; i++) {
+            Object bound = getBoundValue(values[i]);
+            while (pointer < values.length && compareInOrder(values[pointer], bound) < 0) {
+                pointer++;
+            }
+            indexes[i] = pointer;
+        }
+        return indexes;
+    }
+
+    @Override
+    public <T> int[] getEndIndexes(List<T> windowList) {
+        Object[] values = getSortValues(windowList);
+        int[] indexes = new int[values.length];
+        int pointer = 0;
+        for (int i = 0; i < values.length; i++) {
+            Object bound = getBoundValue(values[i]);
+            while (pointer < values.length && compareInOrder(values[pointer], bound) <= 0) {
+                pointer++;
+            }
+            indexes[i] = pointer - 1;
+        }
+        return indexes;
+    }
+
+    private <T> Object getSortValue(List<T> windowList, int index) {
+        if (sortField == null) {
+            throw new IllegalArgumentException("The value range requires the window sorted by sortAsc or sortDesc");
+        }
+        Object value = sortField.apply(windowList.get(index));
+        if (value == null) {
+            throw new IllegalArgumentException("The sort value of the value range cannot be null");
+        }
+        return value;
+    }
+
+    private <T> Object[] getSortValues(List<T> windowList) {
+        Object[] values = new Object[windowList.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getSortValue(windowList, i);
+        }
+        return values;
+    }
+
+    /**
+     * 升序时之前的边界值是减去距离, 降序时是加上距离
+     */
+    private Object getBoundValue(Object value) {
+        boolean plus = asc != before;
+        if (value instanceof Temporal && distance instanceof TemporalAmount) {
+            Temporal temporal = (Temporal) value;
+            TemporalAmount amount = (TemporalAmount) distance;
+            return plus ? temporal.plus(amount) : temporal.minus(amount);
+        }
+        if (value instanceof Date && distance instanceof TemporalAmount) {
+            // Period有年月单位, 按系统时区的日历时间加减
+            ZonedDateTime dateTime = ((Date) value).toInstant().atZone(ZoneId.systemDefault());
+            TemporalAmount amount = (TemporalAmount) distance;
+            return Date.from((plus ? dateTime.plus(amount) : dateTime.minus(amount)).toInstant());
+        }
+        if (value instanceof Number && distance instanceof Number) {
+            Number number = (Number) value;
+            Number amount = (Number) distance;
+            if (isIntegral(number) && isIntegral(amount)) {
+                return plus ? saturatedAdd(number.longValue(), amount.longValue()) : saturatedSubtract(number.longValue(), amount.longValue());
+            }
+            if (isBig(number) || isBig(amount)) {
+                BigDecimal decimal = MathUtils.toBigDecimal(number);
+                BigDecimal decimalAmount = MathUtils.toBigDecimal(amount);
+                return plus ? decimal.add(decimalAmount) : decimal.subtract(decimalAmount);
+            }
+            return plus ? number.doubleValue() + amount.doubleValue() : number.doubleValue() - amount.doubleValue();
+        }
+        throw new IllegalArgumentException("The distance " + distance + " cannot be applied to the sort value " + value);
+    }
+
+    /**
+     * 按窗口排序方向比较
+     */
+    private int compareInOrder(Object value, Object bound) {
+        int compare = compare(value, bound);
+        return asc ? compare : -compare;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(Object value, Object bound) {
+        if (value instanceof Number && bound instanceof Number) {
+            Number number = (Number) value;
+            Number other = (Number) bound;
+            if (isIntegral(number) && isIntegral(other)) {
+                return Long.compare(number.longValue(), other.longValue());
+            }
+            if (isBig(number) || isBig(other)) {
+                return MathUtils.toBigDecimal(number).compareTo(MathUtils.toBigDecimal(other));
+            }
+            return Double.compare(number.doubleValue(), other.doubleValue());
+        }
+        return ((Comparable<Object>) value).compareTo(bound);
+    }
+
+    /**
+     * Duration和Period任一单位为负数
+     */
+    private static boolean isNegative(TemporalAmount amount) {
+        for (TemporalUnit unit : amount.getUnits()) {
+            if (amount.get(unit) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 距离不为负数, 溢出时取long的最大值, 所有的排序值都不在边界值之后
+     */
+    private static long saturatedAdd(long value, long amount) {
+        long result = value + amount;
+        return result < value ? Long.MAX_VALUE : result;
+    }
+
+    /**
+     * 距离不为负数, 溢出时取long的最小值, 所有的排序值都不在边界值之前
+     */
+    private static long saturatedSubtract(long value, long amount) {
+        long result = value - amount;
+        return result > value ? Long.MIN_VALUE : result;
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte;
+    }
+
+    private static boolean isBig(Number number) {
+        return number instanceof BigDecimal || number instanceof BigInteger;
+    }
+}
@@ -30,6 +30,14 @@ public interface WindowRange {
         return false;
     }
 
+    /**
+     * does the boundary move one row forward with the current row,
+     * the window of fixed or row sliding boundaries is calculated by sliding, otherwise by range query of each row
+     */
+    default boolean isSlidingByRow(){
+        return false;
+    }
+
     /**
      * get the window  sliding start boundary
      * @param currentRowIndex           the current row index
@@ -44,6 +52,30 @@ public interface WindowRange {
      */
     <T> Integer getEndIndex(Integer currentRowIndex, List<T> windowList);
 
+    /**
+     * get the window sliding start boundary of every row
+     * @param windowList                the current window data
+     */
+    default <T> int[] getStartIndexes(List<T> windowList){
+        int[] indexes = new int[windowList.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = getStartIndex(i, windowList);
+        }
+        return indexes;
+    }
+
+    /**
+     * get the window sliding end boundary of every row
+     * @param windowList                the current window data
+     */
+    default <T> int[] getEndIndexes(List<T> windowList){
+        int[] indexes = new int[windowList.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = getEndIndex(i, windowList);
+        }
+        return indexes;
+    }
+
     default boolean eq(Object obj) {
          if (obj == null){
              return false;
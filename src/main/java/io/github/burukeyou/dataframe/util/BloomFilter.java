@@ -0,0 +1,118 @@
+package io.github.burukeyou.dataframe.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter
+ *      a compact bit set to test whether an element may be in a set, no false negative but has false positive.
+ *      the element hash is from {@link Object#hashCode()}
+ *
+ * @author caizhihao
+ */
+public class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final long[] bits;
+
+    /**
+     * the number of bits
+     */
+    private final int bitSize;
+
+    /**
+     * the number of hash function
+     */
+    private final int hashNum;
+
+    private final LongAdder probeCount = new LongAdder();
+
+    private final LongAdder rejectCount = new LongAdder();
+
+    /**
+     * @param expectedSize      the expected number of element
+     * @param fpp               the expected false positive probability
+     */
+    public BloomFilter(int expectedSize, double fpp) {
+        this(expectedSize, fpp, 0);
+    }
+
+    /**
+     * @param expectedSize      the expected number of element
+     * @param fpp               the expected false positive probability, used to compute the bit size and the number of hash function
+     * @param bitSize           the number of bits, if less than or equal to 0 it will be computed by expectedSize and fpp
+     */
+    public BloomFilter(int expectedSize, double fpp, int bitSize) {
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("fpp must be in (0,1) but is " + fpp);
+        }
+        int n = Math.max(expectedSize, 1);
+        if (bitSize <= 0) {
+            long m = (long) Math.ceil(-n * Math.log(fpp) / (LN2 * LN2));
+            bitSize = (int) Math.min(Math.max(m, 64), Integer.MAX_VALUE - 63);
+        }
+        this.bitSize = bitSize;
+        this.hashNum = Math.max(1, (int) Math.round((double) bitSize / n * LN2));
+        this.bits = new long[(bitSize + 63) >>> 6];
+    }
+
+    public void put(Object e) {
+        long hash = HashUtils.hash64(e);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashNum; i++) {
+            int index = ((h1 + i * h2) & Integer.MAX_VALUE) % bitSize;
+            bits[index >>> 6] |= 1L << index;
+        }
+    }
+
+    /**
+     * false means the element is definitely not in the set
+     */
+    public boolean mightContain(Object e) {
+        long hash = HashUtils.hash64(e);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashNum; i++) {
+            int index = ((h1 + i * h2) & Integer.MAX_VALUE) % bitSize;
+            if ((bits[index >>> 6] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * add the counters of a probe batch, the caller counts in local variables and adds once per batch
+     * so that the probe loop does not touch the shared counters for every row
+     *
+     * @param probeCount        the number of mightContain called in the batch
+     * @param rejectCount       the number of element rejected in the batch
+     */
+    public void addCounts(long probeCount, long rejectCount) {
+        this.probeCount.add(probeCount);
+        this.rejectCount.add(rejectCount);
+    }
+
+    public int getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashNum() {
+        return hashNum;
+    }
+
+    /**
+     * the number of mightContain called, added by {@link #addCounts(long, long)}
+     */
+    public long getProbeCount() {
+        return probeCount.sum();
+    }
+
+    /**
+     * the number of element rejected by mightContain, added by {@link #addCounts(long, long)}
+     */
+    public long getRejectCount() {
+        return rejectCount.sum();
+    }
+}
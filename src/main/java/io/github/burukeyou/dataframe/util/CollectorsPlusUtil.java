@@ -1,19 +1,23 @@
 package io.github.burukeyou.dataframe.util;
 
 import io.github.burukeyou.dataframe.iframe.function.BigDecimalFunction;
+import io.github.burukeyou.dataframe.iframe.support.MaxMin;
 import io.github.burukeyou.dataframe.iframe.support.NumberFunction;
 
 import java.math.BigDecimal;
-import java.math.MathContext;
+import java.math.RoundingMode;
 import java.util.*;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
+import java.util.stream.Collectors;
 
 
 public class CollectorsPlusUtil {
+	static final Set<Collector.Characteristics> CH_ID = Collections.unmodifiableSet(EnumSet.of(Collector.Characteristics.IDENTITY_FINISH));
 	static final Set<Collector.Characteristics> CH_NOID = Collections.emptySet();
 
 	private CollectorsPlusUtil() {
@@ -72,19 +76,14 @@ public class CollectorsPlusUtil {
 		}
 	}
 
+	/**
+	 * sum the numbers, the integral numbers are summed as long and converted to BigDecimal once at the end
+	 */
 	public static <T,R extends Number> Collector<T, ?, BigDecimal> summingBigDecimalForNumber(NumberFunction<T,R> numberFunction) {
-		BigDecimalFunction<? super T> mapper = getBigDecimalFunction(numberFunction);
-		return summingBigDecimal(mapper);
-	}
-
-	private static <T, R extends Number> BigDecimalFunction<? super T> getBigDecimalFunction(NumberFunction<T, R> numberFunction) {
-		return (e) -> {
-			Number apply = numberFunction.apply(e);
-			if (apply == null){
-				return null;
-			}
-			return apply instanceof BigDecimal ? (BigDecimal)apply : new BigDecimal(apply.toString());
-		};
+		return new CollectorImpl<>(NumberAccumulator::new,
+				(a, t) -> a.add(numberFunction.apply(t)),
+				NumberAccumulator::merge,
+				NumberAccumulator::getSum, CH_NOID);
 	}
 
 	public static <T> Collector<T, ?, BigDecimal> summingBigDecimal(BigDecimalFunction<? super T> mapper) {
@@ -94,7 +93,12 @@ public class CollectorsPlusUtil {
 			}
 			a[0] = a[0].add(mapper.applyAsBigDecimal(t));
 		}, (a, b) -> {
-			a[0] = a[0].add(b[0]);
+			// 没有元素的部分结果为null
+			if (a[0] == null) {
+				a[0] = b[0];
+			} else if (b[0] != null) {
+				a[0] = a[0].add(b[0]);
+			}
 			return a;
 		}, a -> a[0], CH_NOID);
 	}
@@ -162,7 +166,308 @@ public class CollectorsPlusUtil {
 
 	public static <T,R extends Number> Collector<T, ?, BigDecimal> averagingBigDecimal(NumberFunction<T,R> mapper, int newScale,
 																	  int roundingMode){
-		return averagingBigDecimal(getBigDecimalFunction(mapper),newScale,roundingMode);
+		return averagingBigDecimal(mapper, newScale, RoundingMode.valueOf(roundingMode));
+	}
+
+	public static <T,R extends Number> Collector<T, ?, BigDecimal> averagingBigDecimal(NumberFunction<T,R> mapper, int newScale,
+																	  RoundingMode roundingMode){
+		return new CollectorImpl<>(NumberAccumulator::new,
+				(a, t) -> a.add(mapper.apply(t)),
+				NumberAccumulator::merge,
+				a -> a.getAvg(newScale, roundingMode), CH_NOID);
+	}
+
+	/**
+	 * the max value, the null value is ignored
+	 */
+	public static <T, R extends Comparable<? super R>> Collector<T, ?, R> maxValue(Function<T, R> mapper) {
+		return bestValue(mapper, 1);
+	}
+
+	/**
+	 * the min value, the null value is ignored
+	 */
+	public static <T, R extends Comparable<? super R>> Collector<T, ?, R> minValue(Function<T, R> mapper) {
+		return bestValue(mapper, -1);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T, R extends Comparable<? super R>> Collector<T, ?, R> bestValue(Function<T, R> mapper, int sign) {
+		return new CollectorImpl<T, Object[], R>(() -> new Object[1],
+				(a, t) -> a[0] = better((R) a[0], mapper.apply(t), sign),
+				(a, b) -> {
+					a[0] = better((R) a[0], (R) b[0], sign);
+					return a;
+				},
+				a -> (R) a[0], CH_NOID);
+	}
+
+	private static <R extends Comparable<? super R>> R better(R a, R b, int sign) {
+		if (a == null) {
+			return b;
+		}
+		if (b == null) {
+			return a;
+		}
+		return Integer.signum(b.compareTo(a)) == sign ? b : a;
+	}
+
+	/**
+	 * the max element by comparator, the first one is kept when equal. same as Stream.max but only the current max is kept
+	 */
+	public static <T> Collector<T, ?, T> maxElementBy(Comparator<? super T> comparator) {
+		return new CollectorImpl<T, Best<T>, T>(Best::new,
+				(a, t) -> a.acceptMax(t, comparator),
+				(a, b) -> a.mergeMax(b, comparator),
+				a -> a.max, CH_NOID);
+	}
+
+	/**
+	 * the min element by comparator, the first one is kept when equal. same as Stream.min but only the current min is kept
+	 */
+	public static <T> Collector<T, ?, T> minElementBy(Comparator<? super T> comparator) {
+		return new CollectorImpl<T, Best<T>, T>(Best::new,
+				(a, t) -> a.acceptMin(t, comparator),
+				(a, b) -> a.mergeMin(b, comparator),
+				a -> a.min, CH_NOID);
+	}
+
+	/**
+	 * the max and min element by comparator in one pass, the first one is kept when equal
+	 */
+	public static <T> Collector<T, ?, MaxMin<T>> maxMinElementBy(Comparator<? super T> comparator) {
+		return new CollectorImpl<T, Best<T>, MaxMin<T>>(Best::new,
+				(a, t) -> {
+					a.acceptMax(t, comparator);
+					a.acceptMin(t, comparator);
+				},
+				(a, b) -> a.mergeMax(b, comparator).mergeMin(b, comparator),
+				a -> new MaxMin<>(a.max, a.min), CH_NOID);
+	}
+
+	/**
+	 * the max and min row by the value of function in one pass, the function is applied once per row
+	 *
+	 * @param lastOnTie keep the last row when equal, otherwise keep the first row
+	 */
+	public static <T, R extends Comparable<? super R>> Collector<T, ?, MaxMinAccumulator<T, R>> maxMinBy(Function<T, R> function, boolean lastOnTie) {
+		return new CollectorImpl<T, MaxMinAccumulator<T, R>, MaxMinAccumulator<T, R>>(
+				() -> new MaxMinAccumulator<>(function, lastOnTie),
+				MaxMinAccumulator::add,
+				MaxMinAccumulator::merge,
+				CH_ID);
+	}
+
+	/**
+	 * HyperLogLog sketch of the values, the null value is ignored
+	 *
+	 * @param precision the precision of HyperLogLog
+	 */
+	public static <T, R> Collector<T, ?, HyperLogLog> hyperLogLog(Function<T, R> function, int precision) {
+		return new CollectorImpl<T, HyperLogLog, HyperLogLog>(
+				() -> new HyperLogLog(precision),
+				(a, t) -> {
+					R value = function.apply(t);
+					if (value != null) {
+						a.add(value);
+					}
+				},
+				HyperLogLog::merge,
+				CH_ID);
+	}
+
+	/**
+	 * distinct by the key in hash set, the first element of the key is kept in the order they first appear.
+	 * the key of each element is extracted only once
+	 */
+	public static <T, K> Collector<T, ?, List<T>> distinctBy(Function<T, K> function) {
+		return new CollectorImpl<T, LinkedHashMap<Object, T>, List<T>>(LinkedHashMap::new,
+				(a, t) -> a.putIfAbsent(distinctKey(function.apply(t)), t),
+				(a, b) -> {
+					for (Map.Entry<Object, T> entry : b.entrySet()) {
+						a.putIfAbsent(entry.getKey(), entry.getValue());
+					}
+					return a;
+				},
+				a -> new ArrayList<>(a.values()), CH_NOID);
+	}
+
+	/**
+	 * the number of distinct key in hash set
+	 */
+	public static <T, K> Collector<T, ?, Long> countDistinct(Function<T, K> function) {
+		return new CollectorImpl<T, HashSet<Object>, Long>(HashSet::new,
+				(a, t) -> a.add(distinctKey(function.apply(t))),
+				(a, b) -> {
+					a.addAll(b);
+					return a;
+				},
+				a -> (long) a.size(), CH_NOID);
+	}
+
+	/**
+	 * BigDecimal with different scale such as 1.0 and 1.00 is the same key, the same as compareTo
+	 */
+	private static Object distinctKey(Object key) {
+		return key instanceof BigDecimal ? ((BigDecimal) key).stripTrailingZeros() : key;
+	}
+
+	/**
+	 * t-digest sketch of the values, the null value is ignored
+	 *
+	 * @param compression the compression of t-digest
+	 */
+	public static <T, R> Collector<T, ?, TDigest> tDigest(Function<T, R> function, double compression) {
+		return new CollectorImpl<T, TDigest, TDigest>(
+				() -> new TDigest(compression),
+				(a, t) -> {
+					Double value = MathUtils.toDouble(function.apply(t));
+					if (value != null) {
+						a.add(value);
+					}
+				},
+				TDigest::merge,
+				CH_ID);
+	}
+
+	/**
+	 * approximate quantiles of the values by t-digest, the null value is ignored. the quantile is null if no value
+	 *
+	 * @param quantiles the quantiles in [0,1], such as 0.5, 0.95, 0.99
+	 */
+	public static <T, R> Collector<T, ?, List<Double>> quantile(Function<T, R> function, double... quantiles) {
+		for (double quantile : quantiles) {
+			Quantiles.checkQuantile(quantile);
+		}
+		return Collectors.collectingAndThen(tDigest(function, TDigest.DEFAULT_COMPRESSION), a -> {
+			List<Double> result = new ArrayList<>(quantiles.length);
+			for (double quantile : quantiles) {
+				result.add(a.size() == 0 ? null : a.quantile(quantile));
+			}
+			return result;
+		});
+	}
+
+	/**
+	 * only the elements matching the predicate are passed to the downstream collector
+	 */
+	public static <T, A, R> Collector<T, ?, R> filtering(Predicate<? super T> predicate, Collector<? super T, A, R> downstream) {
+		BiConsumer<A, ? super T> accumulator = downstream.accumulator();
+		return new CollectorImpl<>(downstream.supplier(),
+				(a, t) -> {
+					if (predicate.test(t)) {
+						accumulator.accept(a, t);
+					}
+				},
+				downstream.combiner(), downstream.finisher(), CH_NOID);
+	}
+
+	/**
+	 * the current max and min element, the same as the fold of BinaryOperator.maxBy and minBy
+	 */
+	static class Best<T> {
+		private T max;
+		private T min;
+		private boolean hasMax;
+		private boolean hasMin;
+
+		void acceptMax(T t, Comparator<? super T> comparator) {
+			if (!hasMax) {
+				max = t;
+				hasMax = true;
+			} else if (comparator.compare(max, t) < 0) {
+				max = t;
+			}
+		}
+
+		void acceptMin(T t, Comparator<? super T> comparator) {
+			if (!hasMin) {
+				min = t;
+				hasMin = true;
+			} else if (comparator.compare(min, t) > 0) {
+				min = t;
+			}
+		}
+
+		Best<T> mergeMax(Best<T> other, Comparator<? super T> comparator) {
+			if (other.hasMax) {
+				acceptMax(other.max, comparator);
+			}
+			return this;
+		}
+
+		Best<T> mergeMin(Best<T> other, Comparator<? super T> comparator) {
+			if (other.hasMin) {
+				acceptMin(other.min, comparator);
+			}
+			return this;
+		}
+	}
+
+	/**
+	 * group by several keys into one flat GroupTable, the key3 can be null for two keys
+	 * 		in parallel every thread groups its part into its own table and the tables are merged in encounter order
+	 */
+	public static <T, A, V> Collector<T, ?, GroupTable<V>> groupingByKeys(Function<? super T, ?> key1,
+																		  Function<? super T, ?> key2,
+																		  Function<? super T, ?> key3,
+																		  Collector<T, A, V> downstream) {
+		Supplier<A> supplier = downstream.supplier();
+		BiConsumer<A, T> accumulator = downstream.accumulator();
+		BinaryOperator<A> combiner = downstream.combiner();
+		return new CollectorImpl<T, GroupTable<A>, GroupTable<V>>(
+				GroupTable::new,
+				(table, t) -> {
+					A container = table.computeIfAbsent(key1.apply(t), key2.apply(t), key3 == null ? null : key3.apply(t), supplier);
+					accumulator.accept(container, t);
+				},
+				(table, other) -> table.merge(other, combiner),
+				table -> table.finish(downstream.finisher()), CH_NOID);
+	}
+
+	/**
+	 * several collectors in one scan, each element is only visited once and the result is the list of every collector result
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public static <T> Collector<T, ?, List<Object>> multiCollector(List<Collector<T, ?, ?>> collectors) {
+		int n = collectors.size();
+		Supplier[] suppliers = new Supplier[n];
+		BiConsumer[] accumulators = new BiConsumer[n];
+		BinaryOperator[] combiners = new BinaryOperator[n];
+		Function[] finishers = new Function[n];
+		for (int i = 0; i < n; i++) {
+			Collector collector = collectors.get(i);
+			suppliers[i] = collector.supplier();
+			accumulators[i] = collector.accumulator();
+			combiners[i] = collector.combiner();
+			finishers[i] = collector.finisher();
+		}
+		return new CollectorImpl<T, Object[], List<Object>>(
+				() -> {
+					Object[] containers = new Object[n];
+					for (int i = 0; i < n; i++) {
+						containers[i] = suppliers[i].get();
+					}
+					return containers;
+				},
+				(a, t) -> {
+					for (int i = 0; i < n; i++) {
+						accumulators[i].accept(a[i], t);
+					}
+				},
+				(a, b) -> {
+					for (int i = 0; i < n; i++) {
+						a[i] = combiners[i].apply(a[i], b[i]);
+					}
+					return a;
+				},
+				a -> {
+					List<Object> result = new ArrayList<>(n);
+					for (int i = 0; i < n; i++) {
+						result.add(finishers[i].apply(a[i]));
+					}
+					return result;
+				}, CH_NOID);
 	}
 
 	public static <T> Collector<T, ?, BigDecimal> averagingBigDecimal(BigDecimalFunction<? super T> mapper, int newScale,
@@ -175,10 +480,224 @@ public class CollectorsPlusUtil {
 				},
 				(a, b) -> {
 					a[0] = a[0].add(b[0]);
+					a[1] = a[1].add(b[1]);
 					return a;
 				},
-				a -> a[0].divide(a[1], MathContext.DECIMAL32).setScale(newScale, roundingMode), CH_NOID);
+				a -> a[1].signum() == 0 ? null : a[0].divide(a[1], newScale, RoundingMode.valueOf(roundingMode)), CH_NOID);
+	}
+
+
+	/**
+	 * the first n elements of the stable sort by comparator, same as sorted(comparator).limit(n)
+	 * 		use a bounded heap of n elements instead of sorting all elements, the equal elements keep the encounter order
+	 */
+	public static <T> Collector<T, ?, List<T>> sortedLimit(Comparator<? super T> comparator, int n) {
+		if (n <= 0) {
+			throw new IllegalArgumentException("limit N should greater than zero");
+		}
+		return new CollectorImpl<>(
+				() -> new BoundedHeap<T>(comparator, n),
+				BoundedHeap::add,
+				BoundedHeap::merge,
+				BoundedHeap::toSortedList, CH_NOID);
 	}
 
+	/**
+	 * the elements whose rank is in the first n of the sort by comparator, the same value has the same rank
+	 * 		same as keeping the rank less than or equal to n after overRank, the elements tied with the nth element are all kept.
+	 * 		use a bounded heap of n elements and the tied elements instead of sorting all elements
+	 */
+	public static <T> Collector<T, ?, List<T>> rankLimit(Comparator<? super T> comparator, int n) {
+		if (n <= 0) {
+			throw new IllegalArgumentException("rank N should greater than zero");
+		}
+		return new CollectorImpl<>(
+				() -> new BoundedHeap<T>(comparator, n, true),
+				BoundedHeap::add,
+				BoundedHeap::merge,
+				BoundedHeap::toSortedList, CH_NOID);
+	}
+
+	/**
+	 * max heap of the kept elements, the top is the worst one and is replaced by a better element
+	 */
+	static class BoundedHeap<T> {
+		private final Comparator<? super T> comparator;
+		private final int limit;
+		private Object[] items;
+		// 元素的遍历序号, 比较相同时序号小的优先
+		private long[] seqs;
+		private int size;
+		private long count;
+
+		/**
+		 * 是否保留和堆顶相同的元素, 它们与第n个元素排名相同
+		 */
+		private final boolean keepTies;
+		private Object[] tieItems;
+		private long[] tieSeqs;
+		private int tieSize;
+
+		BoundedHeap(Comparator<? super T> comparator, int limit) {
+			this(comparator, limit, false);
+		}
+
+		BoundedHeap(Comparator<? super T> comparator, int limit, boolean keepTies) {
+			this.comparator = comparator;
+			this.limit = limit;
+			this.keepTies = keepTies;
+			int capacity = Math.min(limit, 16);
+			this.items = new Object[capacity];
+			this.seqs = new long[capacity];
+		}
+
+		void add(T item) {
+			offer(item, count++);
+		}
+
+		BoundedHeap<T> merge(BoundedHeap<T> other) {
+			// other中的元素都在当前元素之后
+			for (int i = 0; i < other.size; i++) {
+				offer(other.item(i), count + other.seqs[i]);
+			}
+			for (int i = 0; i < other.tieSize; i++) {
+				offer(castItem(other.tieItems[i]), count + other.tieSeqs[i]);
+			}
+			count += other.count;
+			return this;
+		}
+
+		List<T> toSortedList() {
+			Object[] result = new Object[size];
+			while (size > 0) {
+				result[size - 1] = items[0];
+				removeTop();
+			}
+			List<T> list = new ArrayList<>(result.length + tieSize);
+			for (Object e : result) {
+				list.add(castItem(e));
+			}
+			if (tieSize > 0) {
+				// 相同的元素按遍历顺序排在最后, 它们的序号都比堆中相同元素的大
+				Integer[] order = new Integer[tieSize];
+				for (int i = 0; i < tieSize; i++) {
+					order[i] = i;
+				}
+				Arrays.sort(order, Comparator.comparingLong(i -> tieSeqs[i]));
+				for (Integer i : order) {
+					list.add(castItem(tieItems[i]));
+				}
+			}
+			return list;
+		}
+
+		private void offer(T item, long seq) {
+			if (size < limit) {
+				if (size == items.length) {
+					int capacity = (int) Math.min((long) limit, size * 2L);
+					items = Arrays.copyOf(items, capacity);
+					seqs = Arrays.copyOf(seqs, capacity);
+				}
+				items[size] = item;
+				seqs[size] = seq;
+				siftUp(size++);
+			} else if (compare(item, seq, 0) < 0) {
+				T evicted = item(0);
+				long evictedSeq = seqs[0];
+				items[0] = item;
+				seqs[0] = seq;
+				siftDown(0);
+				if (keepTies) {
+					if (comparator.compare(evicted, item(0)) == 0) {
+						addTie(evicted, evictedSeq);
+					} else {
+						// 新的堆顶更好, 之前相同的元素都排在第n名之后
+						clearTies();
+					}
+				}
+			} else if (keepTies && comparator.compare(item, item(0)) == 0) {
+				addTie(item, seq);
+			}
+		}
+
+		private void addTie(T item, long seq) {
+			if (tieItems == null) {
+				tieItems = new Object[4];
+				tieSeqs = new long[4];
+			} else if (tieSize == tieItems.length) {
+				tieItems = Arrays.copyOf(tieItems, tieSize * 2);
+				tieSeqs = Arrays.copyOf(tieSeqs, tieSize * 2);
+			}
+			tieItems[tieSize] = item;
+			tieSeqs[tieSize++] = seq;
+		}
+
+		private void clearTies() {
+			if (tieSize > 0) {
+				Arrays.fill(tieItems, 0, tieSize, null);
+				tieSize = 0;
+			}
+		}
+
+		private void removeTop() {
+			size--;
+			items[0] = items[size];
+			seqs[0] = seqs[size];
+			items[size] = null;
+			if (size > 0) {
+				siftDown(0);
+			}
+		}
+
+		private void siftUp(int i) {
+			while (i > 0) {
+				int parent = (i - 1) >>> 1;
+				if (compare(item(i), seqs[i], parent) <= 0) {
+					break;
+				}
+				swap(i, parent);
+				i = parent;
+			}
+		}
+
+		private void siftDown(int i) {
+			int half = size >>> 1;
+			while (i < half) {
+				int child = 2 * i + 1;
+				int right = child + 1;
+				if (right < size && compare(item(right), seqs[right], child) > 0) {
+					child = right;
+				}
+				if (compare(item(i), seqs[i], child) >= 0) {
+					break;
+				}
+				swap(i, child);
+				i = child;
+			}
+		}
+
+		private int compare(T item, long seq, int j) {
+			int c = comparator.compare(item, item(j));
+			return c != 0 ? c : Long.compare(seq, seqs[j]);
+		}
+
+		private void swap(int i, int j) {
+			Object item = items[i];
+			items[i] = items[j];
+			items[j] = item;
+			long seq = seqs[i];
+			seqs[i] = seqs[j];
+			seqs[j] = seq;
+		}
+
+		private T item(int i) {
+			return castItem(items[i]);
+		}
+
+		@SuppressWarnings("unchecked")
+		private T castItem(Object item) {
+			return (T) item;
+		}
+	}
 
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package io.github.burukeyou.dataframe.util;
+
+/**
+ * sum of double
+ *      with compensation the lost low-order bits of each add are kept in a separate term (Kahan-Babuska-Neumaier),
+ *      so the error does not grow with the number of adds, such as a sliding window adding and subtracting values.
+ *
+ * @author caizhihao
+ */
+public class DoubleAccumulator {
+
+    private final boolean compensated;
+
+    private double sum;
+
+    private double compensation;
+
+    public DoubleAccumulator(boolean compensated) {
+        this.compensated = compensated;
+    }
+
+    public void add(double value) {
+        if (!compensated) {
+            sum += value;
+            return;
+        }
+        double t = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) {
+            compensation += (sum - t) + value;
+        } else {
+            compensation += (value - t) + sum;
+        }
+        sum = t;
+    }
+
+    public void reset() {
+        sum = 0;
+        compensation = 0;
+    }
+
+    public double getSum() {
+        return sum + compensation;
+    }
+}
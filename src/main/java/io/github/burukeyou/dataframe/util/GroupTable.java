@@ -0,0 +1,159 @@
+package io.github.burukeyou.dataframe.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Open addressing hash table for grouping by several keys
+ *      the keys of a group are stored flat in arrays instead of nested maps or a key object per row,
+ *      the groups are kept in the order they first appear
+ *
+ * @param <A> the value type of group
+ * @author caizhihao
+ */
+public class GroupTable<A> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Object[] keys1 = new Object[DEFAULT_CAPACITY];
+    private Object[] keys2 = new Object[DEFAULT_CAPACITY];
+    private Object[] keys3 = new Object[DEFAULT_CAPACITY];
+    private int[] hashes = new int[DEFAULT_CAPACITY];
+    private Object[] values = new Object[DEFAULT_CAPACITY];
+    private int size;
+
+    /**
+     * the index of group plus one, zero is empty slot
+     */
+    private int[] slots = new int[DEFAULT_CAPACITY * 2];
+
+    /**
+     * get the value of group, create it if absent
+     */
+    @SuppressWarnings("unchecked")
+    public A computeIfAbsent(Object key1, Object key2, Object key3, Supplier<? extends A> supplier) {
+        int hash = hash(key1, key2, key3);
+        int slot = find(key1, key2, key3, hash);
+        if (slot >= 0) {
+            return (A) values[slots[slot] - 1];
+        }
+        A value = supplier.get();
+        insert(~slot, key1, key2, key3, hash, value);
+        return value;
+    }
+
+    /**
+     * merge the groups of other table, the new groups are added after the groups of this table
+     */
+    @SuppressWarnings("unchecked")
+    public GroupTable<A> merge(GroupTable<A> other, BinaryOperator<A> combiner) {
+        for (int i = 0; i < other.size; i++) {
+            int slot = find(other.keys1[i], other.keys2[i], other.keys3[i], other.hashes[i]);
+            if (slot >= 0) {
+                int index = slots[slot] - 1;
+                values[index] = combiner.apply((A) values[index], (A) other.values[i]);
+            } else {
+                insert(~slot, other.keys1[i], other.keys2[i], other.keys3[i], other.hashes[i], other.values[i]);
+            }
+        }
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <K> K getKey1(int index) {
+        return (K) keys1[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    public <K> K getKey2(int index) {
+        return (K) keys2[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    public <K> K getKey3(int index) {
+        return (K) keys3[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    public A getValue(int index) {
+        return (A) values[index];
+    }
+
+    /**
+     * convert the value of every group in place
+     */
+    @SuppressWarnings("unchecked")
+    public <V> GroupTable<V> finish(Function<A, V> finisher) {
+        for (int i = 0; i < size; i++) {
+            values[i] = finisher.apply((A) values[i]);
+        }
+        return (GroupTable<V>) this;
+    }
+
+    /**
+     * the slot of group, or the complement of empty slot to insert if absent
+     */
+    private int find(Object key1, Object key2, Object key3, int hash) {
+        if (size == keys1.length) {
+            grow();
+        }
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        int index;
+        while ((index = slots[slot]) != 0) {
+            index--;
+            if (hashes[index] == hash
+                    && Objects.equals(keys1[index], key1)
+                    && Objects.equals(keys2[index], key2)
+                    && Objects.equals(keys3[index], key3)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return ~slot;
+    }
+
+    private void insert(int slot, Object key1, Object key2, Object key3, int hash, Object value) {
+        keys1[size] = key1;
+        keys2[size] = key2;
+        keys3[size] = key3;
+        hashes[size] = hash;
+        values[size] = value;
+        slots[slot] = ++size;
+    }
+
+    private void grow() {
+        int capacity = keys1.length * 2;
+        keys1 = Arrays.copyOf(keys1, capacity);
+        keys2 = Arrays.copyOf(keys2, capacity);
+        keys3 = Arrays.copyOf(keys3, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        values = Arrays.copyOf(values, capacity);
+        // 负载因子保持在0.5以下
+        slots = new int[capacity * 2];
+        int mask = slots.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = hashes[i] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = i + 1;
+        }
+    }
+
+    private static int hash(Object key1, Object key2, Object key3) {
+        int h = Objects.hashCode(key1);
+        h = 31 * h + Objects.hashCode(key2);
+        h = 31 * h + Objects.hashCode(key3);
+        // 打散连续的hash值, 减少线性探测的冲突
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
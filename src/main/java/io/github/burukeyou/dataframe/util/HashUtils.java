@@ -0,0 +1,23 @@
+package io.github.burukeyou.dataframe.util;
+
+/**
+ *  hash工具
+ */
+public class HashUtils {
+
+    private HashUtils() {
+    }
+
+    /**
+     * spread the 32 bit hashCode to 64 bit by the murmur3 fmix64, the null hash is 0
+     */
+    public static long hash64(Object e) {
+        long h = e == null ? 0 : e.hashCode();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
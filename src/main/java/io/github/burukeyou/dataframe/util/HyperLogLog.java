@@ -0,0 +1,133 @@
+package io.github.burukeyou.dataframe.util;
+
+/**
+ * HyperLogLog sketch
+ *      estimate the number of distinct elements with 2^precision registers of one byte,
+ *      the relative standard error is about 1.04 / sqrt(2^precision). the element hash is from {@link Object#hashCode()}.
+ *      sketches with the same precision can be merged, so partitions can be counted separately and combined.
+ *
+ * @author caizhihao
+ */
+public class HyperLogLog {
+
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+
+    /**
+     * about 0.8% relative error with 16KB registers
+     */
+    public static final int DEFAULT_PRECISION = 14;
+
+    private final int precision;
+
+    private final byte[] registers;
+
+    /**
+     * @param precision     the number of index bits, registers is 2^precision, in [4,18]
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("precision must be in [" + MIN_PRECISION + "," + MAX_PRECISION + "] but is " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * the smallest precision whose relative standard error is not greater than error
+     *
+     * @param error     the expected relative standard error, such as 0.01
+     */
+    public static int precisionOf(double error) {
+        if (error <= 0 || error >= 1) {
+            throw new IllegalArgumentException("error must be in (0,1) but is " + error);
+        }
+        double m = (1.04 / error) * (1.04 / error);
+        int precision = (int) Math.ceil(Math.log(m) / Math.log(2));
+        return Math.min(Math.max(precision, MIN_PRECISION), MAX_PRECISION);
+    }
+
+    public void add(Object e) {
+        long hash = HashUtils.hash64(e);
+        int index = (int) (hash >>> (64 - precision));
+        // 剩余位的前导零个数+1, 补一个哨兵位避免全零
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1);
+        if (registers[index] < rank) {
+            registers[index] = rank;
+        }
+    }
+
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("can not merge HyperLogLog of precision " + other.precision + " into precision " + precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] < other.registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * the estimated number of distinct elements
+     *      by the improved estimator of Otmar Ertl, it has no bias in small or medium range without linear counting or bias table
+     */
+    public long cardinality() {
+        int q = 64 - precision;
+        int[] counts = new int[q + 2];
+        for (byte register : registers) {
+            counts[register]++;
+        }
+        int m = registers.length;
+        double z = m * tau(1 - (double) counts[q + 1] / m);
+        for (int k = q; k >= 1; k--) {
+            z = 0.5 * (z + counts[k]);
+        }
+        z = m * sigma((double) counts[0] / m) + z;
+        return Math.round(m * m / (2 * Math.log(2)) / z);
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * the relative standard error of this sketch
+     */
+    public double getRelativeError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    private static double sigma(double x) {
+        if (x == 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double y = 1;
+        double z = x;
+        double prev;
+        do {
+            x *= x;
+            prev = z;
+            z += x * y;
+            y += y;
+        } while (z != prev);
+        return z;
+    }
+
+    private static double tau(double x) {
+        if (x == 0 || x == 1) {
+            return 0;
+        }
+        double y = 1;
+        double z = 1 - x;
+        double prev;
+        do {
+            x = Math.sqrt(x);
+            prev = z;
+            y *= 0.5;
+            z -= (1 - x) * (1 - x) * y;
+        } while (z != prev);
+        return z / 3;
+    }
+}
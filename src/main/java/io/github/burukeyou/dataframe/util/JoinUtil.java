@@ -0,0 +1,554 @@
+package io.github.burukeyou.dataframe.util;
+
+import io.github.burukeyou.dataframe.iframe.support.BloomOption;
+import io.github.burukeyou.dataframe.iframe.support.Join;
+import io.github.burukeyou.dataframe.iframe.support.JoinOn;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Join engine
+ *      the hash join builds a hash table on the smaller side, then probe it with the other side, the cost is O(n+m).
+ *      Rows whose key is null never match.
+ *      For outer join every unmatched row is kept exactly once
+ *
+ * @author caizhihao
+ */
+public class JoinUtil {
+
+    /**
+     * the frames smaller than it are joined in the current thread
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private JoinUtil(){}
+
+    /**
+     * inner join, the result order is the left order, and then the matched right rows
+     */
+    public static <T, K, V, R> List<R> hashJoin(List<T> left, List<K> right,
+                                                Function<T, V> leftKey, Function<K, V> rightKey,
+                                                Join<T, K, R> join) {
+        return hashJoin(left, right, leftKey, rightKey, join, false, false);
+    }
+
+    /**
+     * left join, a left row without any match is joined with null once
+     */
+    public static <T, K, V, R> List<R> hashLeftJoin(List<T> left, List<K> right,
+                                                    Function<T, V> leftKey, Function<K, V> rightKey,
+                                                    Join<T, K, R> join) {
+        return hashJoin(left, right, leftKey, rightKey, join, true, false);
+    }
+
+    /**
+     * right join, the result order is the right order, a right row without any match is joined with null once
+     */
+    public static <T, K, V, R> List<R> hashRightJoin(List<T> left, List<K> right,
+                                                     Function<T, V> leftKey, Function<K, V> rightKey,
+                                                     Join<T, K, R> join) {
+        return hashJoin(right, left, rightKey, leftKey, (k, t) -> join.join(t, k), true, false);
+    }
+
+    /**
+     * full join, the result order is the left order, and then the unmatched right rows
+     */
+    public static <T, K, V, R> List<R> hashFullJoin(List<T> left, List<K> right,
+                                                    Function<T, V> leftKey, Function<K, V> rightKey,
+                                                    Join<T, K, R> join) {
+        return hashJoin(left, right, leftKey, rightKey, join, true, true);
+    }
+
+    /**
+     * hash join driven by the left order
+     *
+     * @param keepLeft          keep the left rows without match
+     * @param keepRight         keep the right rows without match, they are appended at the end
+     */
+    public static <T, K, V, R> List<R> hashJoin(List<T> left, List<K> right,
+                                                Function<T, V> leftKey, Function<K, V> rightKey,
+                                                Join<T, K, R> join,
+                                                boolean keepLeft, boolean keepRight) {
+        return hashJoin(left, right, leftKey, rightKey, join, keepLeft, keepRight, null);
+    }
+
+    /**
+     * hash join driven by the left order
+     *
+     * @param keepLeft          keep the left rows without match
+     * @param keepRight         keep the right rows without match, they are appended at the end
+     * @param bloomOption       if not null, a bloom filter is built with the hash table, the probe rows rejected by it skip the hash lookup
+     */
+    public static <T, K, V, R> List<R> hashJoin(List<T> left, List<K> right,
+                                                Function<T, V> leftKey, Function<K, V> rightKey,
+                                                Join<T, K, R> join,
+                                                boolean keepLeft, boolean keepRight,
+                                                BloomOption bloomOption) {
+        List<R> resultList = new ArrayList<>();
+        if (left.isEmpty() || right.isEmpty()) {
+            if (keepLeft) {
+                left.forEach(t -> resultList.add(join.join(t, null)));
+            }
+            if (keepRight) {
+                right.forEach(k -> resultList.add(join.join(null, k)));
+            }
+            return resultList;
+        }
+
+        if (right.size() <= left.size()) {
+            // 右边建表, 左边按顺序探测
+            Map<V, List<Integer>> table = buildIndexTable(right, rightKey);
+            BloomFilter bloomFilter = buildBloomFilter(table, bloomOption);
+            boolean[] rightMatched = keepRight ? new boolean[right.size()] : null;
+            long[] counts = new long[2];
+            for (T cur : left) {
+                List<Integer> indexList = probe(table, bloomFilter, leftKey.apply(cur), counts);
+                if (indexList == null) {
+                    if (keepLeft) {
+                        resultList.add(join.join(cur, null));
+                    }
+                    continue;
+                }
+                for (Integer index : indexList) {
+                    resultList.add(join.join(cur, right.get(index)));
+                    if (rightMatched != null) {
+                        rightMatched[index] = true;
+                    }
+                }
+            }
+            addCounts(bloomFilter, counts);
+            report(bloomOption, bloomFilter);
+            if (rightMatched != null) {
+                for (int i = 0; i < right.size(); i++) {
+                    if (!rightMatched[i]) {
+                        resultList.add(join.join(null, right.get(i)));
+                    }
+                }
+            }
+            return resultList;
+        }
+
+        // 左边较小时在左边建表, 用右边探测并记录每个左边行匹配到的右边行, 再按左边的顺序输出
+        Map<V, List<Integer>> table = buildIndexTable(left, leftKey);
+        BloomFilter bloomFilter = buildBloomFilter(table, bloomOption);
+        List<List<K>> matchedList = new ArrayList<>(left.size());
+        for (int i = 0; i < left.size(); i++) {
+            matchedList.add(null);
+        }
+        List<K> rightUnmatchedList = new ArrayList<>();
+        long[] counts = new long[2];
+        for (K k : right) {
+            List<Integer> indexList = probe(table, bloomFilter, rightKey.apply(k), counts);
+            if (indexList == null) {
+                if (keepRight) {
+                    rightUnmatchedList.add(k);
+                }
+                continue;
+            }
+            for (Integer index : indexList) {
+                List<K> kList = matchedList.get(index);
+                if (kList == null) {
+                    kList = new ArrayList<>(1);
+                    matchedList.set(index, kList);
+                }
+                kList.add(k);
+            }
+        }
+        addCounts(bloomFilter, counts);
+        report(bloomOption, bloomFilter);
+        for (int i = 0; i < left.size(); i++) {
+            T cur = left.get(i);
+            List<K> kList = matchedList.get(i);
+            if (kList == null) {
+                if (keepLeft) {
+                    resultList.add(join.join(cur, null));
+                }
+                continue;
+            }
+            for (K k : kList) {
+                resultList.add(join.join(cur, k));
+            }
+        }
+        for (K k : rightUnmatchedList) {
+            resultList.add(join.join(null, k));
+        }
+        return resultList;
+    }
+
+    /**
+     * partitioned hash join run on the pool
+     *      both sides are partitioned into buckets by the hash of key, then the buckets are joined concurrently.
+     *      the result is the same as {@link JoinUtil#hashJoin(List, List, Function, Function, Join, boolean, boolean)}, include the order
+     *
+     * @param keepLeft          keep the left rows without match
+     * @param keepRight         keep the right rows without match, they are appended at the end
+     * @param pool              the pool to run the buckets join
+     */
+    public static <T, K, V, R> List<R> parallelHashJoin(List<T> left, List<K> right,
+                                                        Function<T, V> leftKey, Function<K, V> rightKey,
+                                                        Join<T, K, R> join,
+                                                        boolean keepLeft, boolean keepRight,
+                                                        ForkJoinPool pool) {
+        return parallelHashJoin(left, right, leftKey, rightKey, join, keepLeft, keepRight, pool, null);
+    }
+
+    /**
+     * partitioned hash join run on the pool
+     *      such as {@link JoinUtil#parallelHashJoin(List, List, Function, Function, Join, boolean, boolean, ForkJoinPool)}
+     *
+     * @param bloomOption       if not null, a bloom filter is built on the right keys, the left rows rejected by it skip the hash lookup
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, K, V, R> List<R> parallelHashJoin(List<T> left, List<K> right,
+                                                        Function<T, V> leftKey, Function<K, V> rightKey,
+                                                        Join<T, K, R> join,
+                                                        boolean keepLeft, boolean keepRight,
+                                                        ForkJoinPool pool,
+                                                        BloomOption bloomOption) {
+        int parallelism = pool.getParallelism();
+        if (parallelism <= 1 || left.size() + right.size() < PARALLEL_THRESHOLD || left.isEmpty() || right.isEmpty()) {
+            return hashJoin(left, right, leftKey, rightKey, join, keepLeft, keepRight, bloomOption);
+        }
+        // 桶的个数为2的幂次, 每个线程大约分到4个桶
+        int bits = 32 - Integer.numberOfLeadingZeros(parallelism * 4 - 1);
+        int bucketNum = 1 << bits;
+
+        Object[] leftKeyArr = new Object[left.size()];
+        Object[] rightKeyArr = new Object[right.size()];
+        pool.submit(() -> {
+            IntStream.range(0, left.size()).parallel().forEach(i -> leftKeyArr[i] = leftKey.apply(left.get(i)));
+            IntStream.range(0, right.size()).parallel().forEach(i -> rightKeyArr[i] = rightKey.apply(right.get(i)));
+        }).join();
+        int[][] leftBuckets = partition(leftKeyArr, bits, bucketNum);
+        int[][] rightBuckets = partition(rightKeyArr, bits, bucketNum);
+        BloomFilter bloomFilter = null;
+        if (bloomOption != null) {
+            bloomFilter = bloomOption.newFilter(right.size());
+            for (Object v : rightKeyArr) {
+                if (v != null) {
+                    bloomFilter.put(v);
+                }
+            }
+        }
+        BloomFilter finalBloomFilter = bloomFilter;
+
+        // 每个左边行产生的结果数, 以及每个桶按左边行顺序产生的结果
+        int[] leftCount = new int[left.size()];
+        boolean[] rightMatched = new boolean[right.size()];
+        List<List<R>> bucketResult = new ArrayList<>(Collections.nCopies(bucketNum, null));
+        pool.submit(() -> IntStream.range(0, bucketNum).parallel().forEach(b -> {
+            Map<V, List<Integer>> table = new HashMap<>();
+            for (int index : rightBuckets[b]) {
+                table.computeIfAbsent((V) rightKeyArr[index], k -> new ArrayList<>(1)).add(index);
+            }
+            List<R> resultList = new ArrayList<>();
+            long[] counts = new long[2];
+            for (int index : leftBuckets[b]) {
+                List<Integer> indexList = probe(table, finalBloomFilter, (V) leftKeyArr[index], counts);
+                if (indexList == null) {
+                    if (keepLeft) {
+                        resultList.add(join.join(left.get(index), null));
+                        leftCount[index] = 1;
+                    }
+                    continue;
+                }
+                T cur = left.get(index);
+                for (Integer rightIndex : indexList) {
+                    resultList.add(join.join(cur, right.get(rightIndex)));
+                    rightMatched[rightIndex] = true;
+                }
+                leftCount[index] = indexList.size();
+            }
+            addCounts(finalBloomFilter, counts);
+            bucketResult.set(b, resultList);
+        })).join();
+        report(bloomOption, bloomFilter);
+
+        // null key 的左边行不在任何桶中
+        int total = 0;
+        int[] offset = new int[left.size()];
+        for (int i = 0; i < left.size(); i++) {
+            if (keepLeft && leftKeyArr[i] == null) {
+                leftCount[i] = 1;
+            }
+            offset[i] = total;
+            total += leftCount[i];
+        }
+        Object[] resultArr = new Object[total];
+        pool.submit(() -> IntStream.range(0, bucketNum).parallel().forEach(b -> {
+            List<R> resultList = bucketResult.get(b);
+            int cursor = 0;
+            for (int index : leftBuckets[b]) {
+                for (int j = 0; j < leftCount[index]; j++) {
+                    resultArr[offset[index] + j] = resultList.get(cursor++);
+                }
+            }
+        })).join();
+        if (keepLeft) {
+            for (int i = 0; i < left.size(); i++) {
+                if (leftKeyArr[i] == null) {
+                    resultArr[offset[i]] = join.join(left.get(i), null);
+                }
+            }
+        }
+
+        List<R> resultList = new ArrayList<>(total);
+        for (Object r : resultArr) {
+            resultList.add((R) r);
+        }
+        if (keepRight) {
+            for (int i = 0; i < right.size(); i++) {
+                if (!rightMatched[i]) {
+                    resultList.add(join.join(null, right.get(i)));
+                }
+            }
+        }
+        return resultList;
+    }
+
+    /**
+     * partition the row indexes by the hash of key, the index order is kept in each bucket, null key is ignored
+     */
+    private static int[][] partition(Object[] keyArr, int bits, int bucketNum) {
+        int[] bucketOf = new int[keyArr.length];
+        int[] size = new int[bucketNum];
+        for (int i = 0; i < keyArr.length; i++) {
+            if (keyArr[i] == null) {
+                bucketOf[i] = -1;
+                continue;
+            }
+            // 取hash的高位分桶, 避免和桶内HashMap使用的低位冲突
+            int b = (keyArr[i].hashCode() * 0x9E3779B9) >>> (32 - bits);
+            bucketOf[i] = b;
+            size[b]++;
+        }
+        int[][] buckets = new int[bucketNum][];
+        for (int b = 0; b < bucketNum; b++) {
+            buckets[b] = new int[size[b]];
+            size[b] = 0;
+        }
+        for (int i = 0; i < keyArr.length; i++) {
+            int b = bucketOf[i];
+            if (b >= 0) {
+                buckets[b][size[b]++] = i;
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * nested loop join by the connection conditions, driven by the left order
+     *
+     * @param keepLeft          keep the left rows without match
+     * @param keepRight         keep the right rows without match, they are appended at the end
+     */
+    public static <T, K, R> List<R> loopJoin(List<T> left, List<K> right,
+                                             JoinOn<T, K> on,
+                                             Join<T, K, R> join,
+                                             boolean keepLeft, boolean keepRight) {
+        List<R> resultList = new ArrayList<>();
+        boolean[] rightMatched = keepRight ? new boolean[right.size()] : null;
+        for (T cur : left) {
+            boolean matched = false;
+            for (int i = 0; i < right.size(); i++) {
+                K k = right.get(i);
+                if (on.on(cur, k)) {
+                    resultList.add(join.join(cur, k));
+                    matched = true;
+                    if (rightMatched != null) {
+                        rightMatched[i] = true;
+                    }
+                }
+            }
+            if (!matched && keepLeft) {
+                resultList.add(join.join(cur, null));
+            }
+        }
+        if (rightMatched != null) {
+            for (int i = 0; i < right.size(); i++) {
+                if (!rightMatched[i]) {
+                    resultList.add(join.join(null, right.get(i)));
+                }
+            }
+        }
+        return resultList;
+    }
+
+    /**
+     * sort merge join, both sides must be sorted by the connection key with the keyComparator.
+     * the keys are matched when the keyComparator returns 0 rather than by equals, such as BigDecimal 1.0 and 1.00 are matched by the natural order.
+     * the result is in the left order and the matched right rows are in the right order, the extra memory is O(1).
+     * if any side is not sorted, fall back to a join on a TreeMap of the keyComparator, which matches the same keys in the same order
+     */
+    public static <T, K, V, R> List<R> mergeJoin(List<T> left, List<K> right,
+                                                 Function<T, V> leftKey, Function<K, V> rightKey,
+                                                 Comparator<? super V> keyComparator,
+                                                 Join<T, K, R> join) {
+        if (!isSorted(left, leftKey, keyComparator) || !isSorted(right, rightKey, keyComparator)) {
+            return comparatorJoin(left, right, leftKey, rightKey, keyComparator, join);
+        }
+        List<R> resultList = new ArrayList<>();
+        // 右边当前key相同的区间的起始位置
+        int runStart = 0;
+        for (T cur : left) {
+            V v = leftKey.apply(cur);
+            if (v == null) {
+                continue;
+            }
+            while (runStart < right.size()) {
+                V rv = rightKey.apply(right.get(runStart));
+                if (rv != null && keyComparator.compare(rv, v) >= 0) {
+                    break;
+                }
+                runStart++;
+            }
+            for (int i = runStart; i < right.size(); i++) {
+                K k = right.get(i);
+                V rv = rightKey.apply(k);
+                if (rv == null) {
+                    continue;
+                }
+                if (keyComparator.compare(rv, v) != 0) {
+                    break;
+                }
+                resultList.add(join.join(cur, k));
+            }
+        }
+        return resultList;
+    }
+
+    /**
+     * inner join on a TreeMap built with the keyComparator, the keys are matched when the keyComparator returns 0
+     */
+    public static <T, K, V, R> List<R> comparatorJoin(List<T> left, List<K> right,
+                                                      Function<T, V> leftKey, Function<K, V> rightKey,
+                                                      Comparator<? super V> keyComparator,
+                                                      Join<T, K, R> join) {
+        TreeMap<V, List<K>> table = new TreeMap<>(keyComparator);
+        for (K k : right) {
+            V v = rightKey.apply(k);
+            if (v != null) {
+                table.computeIfAbsent(v, e -> new ArrayList<>(1)).add(k);
+            }
+        }
+        List<R> resultList = new ArrayList<>();
+        for (T cur : left) {
+            V v = leftKey.apply(cur);
+            List<K> matchList = v == null ? null : table.get(v);
+            if (matchList != null) {
+                for (K k : matchList) {
+                    resultList.add(join.join(cur, k));
+                }
+            }
+        }
+        return resultList;
+    }
+
+    /**
+     * whether the list is sorted by the key with the comparator, null key are ignored
+     */
+    public static <E, V> boolean isSorted(List<E> dataList, Function<E, V> key, Comparator<? super V> comparator) {
+        V pre = null;
+        for (E e : dataList) {
+            V v = key.apply(e);
+            if (v == null) {
+                continue;
+            }
+            if (pre != null && comparator.compare(pre, v) > 0) {
+                return false;
+            }
+            pre = v;
+        }
+        return true;
+    }
+
+    public static <E, V> Map<V, List<E>> buildTable(List<E> dataList, Function<E, V> key) {
+        Map<V, List<E>> table = new HashMap<>();
+        for (E e : dataList) {
+            V v = key.apply(e);
+            if (v != null) {
+                table.computeIfAbsent(v, k -> new ArrayList<>(1)).add(e);
+            }
+        }
+        return table;
+    }
+
+    public static <E, V> Map<V, List<Integer>> buildIndexTable(List<E> dataList, Function<E, V> key) {
+        Map<V, List<Integer>> table = new HashMap<>();
+        for (int i = 0; i < dataList.size(); i++) {
+            V v = key.apply(dataList.get(i));
+            if (v != null) {
+                table.computeIfAbsent(v, k -> new ArrayList<>(1)).add(i);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * the non null keys of the list
+     */
+    public static <E, V> Set<V> buildKeySet(List<E> dataList, Function<E, V> key) {
+        Set<V> keySet = new HashSet<>();
+        for (E e : dataList) {
+            V v = key.apply(e);
+            if (v != null) {
+                keySet.add(v);
+            }
+        }
+        return keySet;
+    }
+
+    /**
+     * @param counts    the probe count and the reject count of the current batch, added to the filter by {@link #addCounts(BloomFilter, long[])}
+     */
+    private static <V, E> List<E> probe(Map<V, List<E>> table, BloomFilter bloomFilter, V key, long[] counts) {
+        if (key == null) {
+            return null;
+        }
+        if (bloomFilter != null) {
+            counts[0]++;
+            if (!bloomFilter.mightContain(key)) {
+                counts[1]++;
+                return null;
+            }
+        }
+        return table.get(key);
+    }
+
+    private static void addCounts(BloomFilter bloomFilter, long[] counts) {
+        if (bloomFilter != null) {
+            bloomFilter.addCounts(counts[0], counts[1]);
+        }
+    }
+
+    /**
+     * pass the counters of the whole join to the listener of option
+     */
+    private static void report(BloomOption bloomOption, BloomFilter bloomFilter) {
+        if (bloomFilter != null) {
+            bloomOption.report(bloomFilter);
+        }
+    }
+
+    private static <V> BloomFilter buildBloomFilter(Map<V, ?> table, BloomOption bloomOption) {
+        if (bloomOption == null) {
+            return null;
+        }
+        BloomFilter bloomFilter = bloomOption.newFilter(table.size());
+        for (V v : table.keySet()) {
+            bloomFilter.put(v);
+        }
+        return bloomFilter;
+    }
+}
@@ -100,13 +100,27 @@ public class MathUtils {
             return (BigDecimal)value;
         }
 
-        if (value instanceof Integer){
-            return new BigDecimal((Integer)value);
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte){
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+
+        if (value instanceof Double){
+            return BigDecimal.valueOf((Double) value);
         }
 
         return new BigDecimal(String.valueOf(value));
     }
 
+    public static <T> Double toDouble(T value){
+        if (value == null){
+            return null;
+        }
+        if (value instanceof Number){
+            return ((Number) value).doubleValue();
+        }
+        return toBigDecimal(value).doubleValue();
+    }
+
     public static BigDecimal divide(BigDecimal dividend, BigDecimal divisor) {
         return divide(dividend, divisor, 8);
     }
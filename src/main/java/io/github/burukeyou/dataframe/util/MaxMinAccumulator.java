@@ -0,0 +1,98 @@
+package io.github.burukeyou.dataframe.util;
+
+import io.github.burukeyou.dataframe.iframe.support.MaxMin;
+
+import java.util.function.Function;
+
+/**
+ * the max and min row of one pass
+ *      the value of the current max and min row is cached, so the function is applied only once per row,
+ *      the null row and the row with null value are ignored.
+ *
+ * @param <T> the row type
+ * @param <R> the value type
+ * @author caizhihao
+ */
+public class MaxMinAccumulator<T, R extends Comparable<? super R>> {
+
+    private final Function<T, R> function;
+
+    /**
+     * keep the last row when equal, otherwise keep the first row
+     */
+    private final boolean lastOnTie;
+
+    private T max;
+    private T min;
+    private R maxValue;
+    private R minValue;
+
+    public MaxMinAccumulator(Function<T, R> function, boolean lastOnTie) {
+        this.function = function;
+        this.lastOnTie = lastOnTie;
+    }
+
+    public void add(T row) {
+        if (row == null) {
+            return;
+        }
+        R value = function.apply(row);
+        if (value != null) {
+            accept(row, value, row, value);
+        }
+    }
+
+    /**
+     * merge the rows after this accumulator
+     */
+    public MaxMinAccumulator<T, R> merge(MaxMinAccumulator<T, R> other) {
+        if (other.maxValue != null) {
+            accept(other.max, other.maxValue, other.min, other.minValue);
+        }
+        return this;
+    }
+
+    private void accept(T newMax, R newMaxValue, T newMin, R newMinValue) {
+        if (maxValue == null) {
+            max = newMax;
+            maxValue = newMaxValue;
+            min = newMin;
+            minValue = newMinValue;
+            return;
+        }
+        int cmp = newMaxValue.compareTo(maxValue);
+        if (cmp > 0 || (lastOnTie && cmp == 0)) {
+            max = newMax;
+            maxValue = newMaxValue;
+        }
+        cmp = newMinValue.compareTo(minValue);
+        if (cmp < 0 || (lastOnTie && cmp == 0)) {
+            min = newMin;
+            minValue = newMinValue;
+        }
+    }
+
+    public T getMax() {
+        return max;
+    }
+
+    public T getMin() {
+        return min;
+    }
+
+    public R getMaxValue() {
+        return maxValue;
+    }
+
+    public R getMinValue() {
+        return minValue;
+    }
+
+    public MaxMin<T> toMaxMin() {
+        return new MaxMin<>(max, min);
+    }
+
+    public MaxMin<R> toMaxMinValue() {
+        return new MaxMin<>(maxValue, minValue);
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.burukeyou.dataframe.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * exact sum of numbers
+ *      the integral numbers are summed as long and only converted to BigDecimal once at the end,
+ *      other numbers are summed as BigDecimal. the null value is ignored.
+ *
+ * @author caizhihao
+ */
+public class NumberAccumulator {
+
+    private long longSum;
+
+    /**
+     * the sum of the non integral numbers and the overflowed long sum
+     */
+    private BigDecimal decimalSum;
+
+    private long count;
+
+    public void add(Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            addLong(((Number) value).longValue());
+        } else {
+            addDecimal(MathUtils.toBigDecimal(value));
+            count++;
+        }
+    }
+
+    public void addLong(long value) {
+        long sum = longSum + value;
+        // 溢出时把已经累加的部分转到BigDecimal
+        if (((longSum ^ sum) & (value ^ sum)) < 0) {
+            addDecimal(BigDecimal.valueOf(longSum));
+            sum = value;
+        }
+        longSum = sum;
+        count++;
+    }
+
+    public NumberAccumulator merge(NumberAccumulator other) {
+        long count = this.count;
+        addLong(other.longSum);
+        if (other.decimalSum != null) {
+            addDecimal(other.decimalSum);
+        }
+        this.count = count + other.count;
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * the sum, null if no number is added
+     */
+    public BigDecimal getSum() {
+        if (count == 0) {
+            return null;
+        }
+        BigDecimal sum = BigDecimal.valueOf(longSum);
+        return decimalSum == null ? sum : sum.add(decimalSum);
+    }
+
+    /**
+     * the average, null if no number is added
+     */
+    public BigDecimal getAvg(int scale, RoundingMode roundingMode) {
+        if (count == 0) {
+            return null;
+        }
+        return getSum().divide(BigDecimal.valueOf(count), scale, roundingMode);
+    }
+
+    private void addDecimal(BigDecimal value) {
+        decimalSum = decimalSum == null ? value : decimalSum.add(value);
+    }
+}
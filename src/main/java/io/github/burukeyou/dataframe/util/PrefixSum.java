@@ -0,0 +1,36 @@
+package io.github.burukeyou.dataframe.util;
+
+import java.math.BigDecimal;
+
+/**
+ * prefix sums of one partition
+ *      the sum of any index range is the difference of two prefix sums, so each range is answered in O(1)
+ *      whatever how the range moves. the null value is counted as 0.
+ *
+ * @author caizhihao
+ */
+public class PrefixSum {
+
+    /**
+     * prefix[i] is the sum of the first i values
+     */
+    private final BigDecimal[] prefix;
+
+    public PrefixSum(BigDecimal[] values) {
+        this.prefix = new BigDecimal[values.length + 1];
+        this.prefix[0] = BigDecimal.ZERO;
+        for (int i = 0; i < values.length; i++) {
+            this.prefix[i + 1] = values[i] == null ? prefix[i] : prefix[i].add(values[i]);
+        }
+    }
+
+    /**
+     * the sum of the index range [from, to], the empty range is 0
+     */
+    public BigDecimal sum(int from, int to) {
+        if (from > to) {
+            return BigDecimal.ZERO;
+        }
+        return prefix[to + 1].subtract(prefix[from]);
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.burukeyou.dataframe.util;
+
+/**
+ * Exact quantile
+ *      the quantile q of n values is the linear interpolation at rank (n - 1) * q of the ascending values,
+ *      the same as PERCENTILE_CONT of sql. the rank is found by selection instead of a full sort.
+ *
+ * @author caizhihao
+ */
+public class Quantiles {
+
+    private Quantiles() {
+    }
+
+    public static void checkQuantile(double quantile) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("quantile must be in [0,1] but is " + quantile);
+        }
+    }
+
+    /**
+     * the quantile of the first size values, the values are reordered in place
+     */
+    public static double select(double[] values, int size, double quantile) {
+        checkQuantile(quantile);
+        double rank = (size - 1) * quantile;
+        int lower = (int) rank;
+        double lowerValue = selectKth(values, 0, size - 1, lower);
+        if (lower == size - 1 || rank == lower) {
+            return lowerValue;
+        }
+        // 第k小的元素就位后, 右边的最小值就是第k+1小的元素
+        double upperValue = values[lower + 1];
+        for (int i = lower + 2; i < size; i++) {
+            if (values[i] < upperValue) {
+                upperValue = values[i];
+            }
+        }
+        return lowerValue + (rank - lower) * (upperValue - lowerValue);
+    }
+
+    /**
+     * the quantile of the first size values which are sorted ascending
+     */
+    public static double sorted(double[] values, int size, double quantile) {
+        double rank = (size - 1) * quantile;
+        int lower = (int) rank;
+        if (lower == size - 1 || rank == lower) {
+            return values[lower];
+        }
+        return values[lower] + (rank - lower) * (values[lower + 1] - values[lower]);
+    }
+
+    /**
+     * quick select, the k-th smallest value is placed at index k
+     */
+    private static double selectKth(double[] values, int left, int right, int k) {
+        while (left < right) {
+            // 三数取中作为基准, 避免有序数据退化
+            int mid = (left + right) >>> 1;
+            if (values[mid] < values[left]) {
+                swap(values, left, mid);
+            }
+            if (values[right] < values[left]) {
+                swap(values, left, right);
+            }
+            if (values[right] < values[mid]) {
+                swap(values, mid, right);
+            }
+            double pivot = values[mid];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(values, i++, j--);
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return values[k];
+            }
+        }
+        return values[k];
+    }
+
+    private static void swap(double[] values, int i, int j) {
+        double tmp = values[i];
+        values[i] = values[j];
+        values[j] = tmp;
+    }
+}
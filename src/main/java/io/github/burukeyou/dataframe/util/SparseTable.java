@@ -0,0 +1,67 @@
+package io.github.burukeyou.dataframe.util;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * sparse table of one partition
+ *      table[k][i] is the best value of the index range [i, i + 2^k), built in O(n log n).
+ *      max and min are idempotent, so any index range is the best of two overlapping power of two ranges, answered in O(1).
+ *      the null value is ignored.
+ *
+ * @param <V> the value type
+ * @author caizhihao
+ */
+public class SparseTable<V> {
+
+    private final Comparator<? super V> comparator;
+
+    private final Object[][] table;
+
+    /**
+     * @param values            the values of the partition
+     * @param comparator        the best value is the greatest one of the comparator, reverse it to get the least one
+     */
+    public SparseTable(List<V> values, Comparator<? super V> comparator) {
+        this.comparator = comparator;
+        int size = values.size();
+        int levels = 1;
+        while ((1 << levels) <= size) {
+            levels++;
+        }
+        this.table = new Object[levels][];
+        this.table[0] = values.toArray();
+        for (int k = 1; k < levels; k++) {
+            Object[] last = table[k - 1];
+            int half = 1 << (k - 1);
+            Object[] current = new Object[size - (1 << k) + 1];
+            for (int i = 0; i < current.length; i++) {
+                current[i] = best(last[i], last[i + half]);
+            }
+            table[k] = current;
+        }
+    }
+
+    /**
+     * the best value of the index range [from, to], null if the range is empty or all values are null
+     */
+    @SuppressWarnings("unchecked")
+    public V query(int from, int to) {
+        if (from > to) {
+            return null;
+        }
+        int k = 31 - Integer.numberOfLeadingZeros(to - from + 1);
+        return (V) best(table[k][from], table[k][to - (1 << k) + 1]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object best(Object a, Object b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return comparator.compare((V) a, (V) b) >= 0 ? a : b;
+    }
+}
@@ -0,0 +1,216 @@
+package io.github.burukeyou.dataframe.util;
+
+import java.util.Arrays;
+
+/**
+ * t-digest sketch for quantile
+ *      the values are clustered into centroids of mean and weight, the centroids near the tails are kept small
+ *      so the extreme quantiles such as p99 are accurate. the memory grows with the compression and only the log of the number of values.
+ *      digests can be merged, so partitions can be summarized separately and combined.
+ *
+ * @author caizhihao
+ */
+public class TDigest {
+
+    public static final double DEFAULT_COMPRESSION = 100;
+
+    private final double compression;
+
+    private double[] means;
+    private double[] weights;
+    private int centroidCount;
+    private double totalWeight;
+
+    /**
+     * the values not yet merged into centroids
+     */
+    private final double[] buffer;
+    private final double[] bufferWeights;
+    private int bufferSize;
+
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param compression   the larger the more accurate, the number of centroids is about compression / 2 * log(n)
+     */
+    public TDigest(double compression) {
+        if (!(compression >= 10)) {
+            throw new IllegalArgumentException("compression must be greater than or equal to 10 but is " + compression);
+        }
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression) + 10;
+        this.means = new double[capacity];
+        this.weights = new double[capacity];
+        this.buffer = new double[capacity * 20];
+        this.bufferWeights = new double[buffer.length];
+        Arrays.fill(bufferWeights, 1);
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+        buffer[bufferSize++] = value;
+        if (bufferSize == buffer.length) {
+            compress();
+        }
+    }
+
+    public TDigest merge(TDigest other) {
+        other.compress();
+        if (other.centroidCount == 0) {
+            return this;
+        }
+        compress();
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        mergeCentroids(other.means, other.weights, other.centroidCount, other.totalWeight);
+        return this;
+    }
+
+    /**
+     * the number of values
+     */
+    public long size() {
+        return (long) totalWeight + bufferSize;
+    }
+
+    /**
+     * the approximate quantile, NaN if no value is added
+     *
+     * @param quantile      in [0,1]
+     */
+    public double quantile(double quantile) {
+        Quantiles.checkQuantile(quantile);
+        compress();
+        if (centroidCount == 0) {
+            return Double.NaN;
+        }
+        if (centroidCount == 1) {
+            return means[0];
+        }
+        // 与精确分位数一致, 第i个值在排名i上, 每个质心的中心在其权重的中点
+        double rank = quantile * (totalWeight - 1) + 0.5;
+        double center = weights[0] / 2;
+        if (rank <= center) {
+            return interpolate(min, means[0], rank / center);
+        }
+        double left = 0;
+        for (int i = 0; i < centroidCount - 1; i++) {
+            double nextCenter = left + weights[i] + weights[i + 1] / 2;
+            if (rank <= nextCenter) {
+                return interpolate(means[i], means[i + 1], (rank - center) / (nextCenter - center));
+            }
+            left += weights[i];
+            center = nextCenter;
+        }
+        double lastWeight = weights[centroidCount - 1];
+        return interpolate(means[centroidCount - 1], max, (rank - center) / (lastWeight / 2));
+    }
+
+    public double getCompression() {
+        return compression;
+    }
+
+    /**
+     * merge the buffer into centroids
+     */
+    private void compress() {
+        if (bufferSize == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, bufferSize);
+        int size = bufferSize;
+        bufferSize = 0;
+        mergeCentroids(buffer, bufferWeights, size, size);
+    }
+
+    /**
+     * merge the sorted centroids with the sorted centroids of this digest,
+     * the adjacent centroids are combined while the size bound of the scale function allows
+     */
+    private void mergeCentroids(double[] otherMeans, double[] otherWeights, int otherCount, double otherWeight) {
+        double total = totalWeight + otherWeight;
+        int capacity = Math.max(means.length, (int) Math.ceil(compression * 2) + 10);
+        double[] newMeans = new double[capacity];
+        double[] newWeights = new double[capacity];
+        int count = 0;
+
+        double curMean = 0;
+        double curWeight = 0;
+        double weightSoFar = 0;
+        double limit = 0;
+        int i = 0;
+        int j = 0;
+        while (i < centroidCount || j < otherCount) {
+            double mean;
+            double weight;
+            if (j >= otherCount || (i < centroidCount && means[i] <= otherMeans[j])) {
+                mean = means[i];
+                weight = weights[i++];
+            } else {
+                mean = otherMeans[j];
+                weight = otherWeights[j++];
+            }
+            if (curWeight == 0) {
+                curMean = mean;
+                curWeight = weight;
+                limit = total * quantileLimit(0);
+                continue;
+            }
+            if (weightSoFar + curWeight + weight <= limit) {
+                curWeight += weight;
+                curMean += (mean - curMean) * weight / curWeight;
+                continue;
+            }
+            newMeans[count] = curMean;
+            newWeights[count++] = curWeight;
+            weightSoFar += curWeight;
+            limit = total * quantileLimit(weightSoFar / total);
+            curMean = mean;
+            curWeight = weight;
+            if (count == newMeans.length - 1) {
+                newMeans = Arrays.copyOf(newMeans, count * 2);
+                newWeights = Arrays.copyOf(newWeights, count * 2);
+            }
+        }
+        newMeans[count] = curMean;
+        newWeights[count++] = curWeight;
+
+        means = newMeans;
+        weights = newWeights;
+        centroidCount = count;
+        totalWeight = total;
+    }
+
+    /**
+     * the max quantile a centroid starting at quantile q can reach, k(q_end) - k(q) <= 1
+     * where k(q) = compression / 4 * log(q / (1 - q)), that is the centroid size is about 4 * n * q * (1 - q) / compression,
+     * so the centroids near the tails are small
+     */
+    private double quantileLimit(double q) {
+        if (q <= 0) {
+            return 0;
+        }
+        if (q >= 1) {
+            return 1;
+        }
+        double k = compression / 4 * Math.log(q / (1 - q)) + 1;
+        return 1 / (1 + Math.exp(-4 * k / compression));
+    }
+
+    private static double interpolate(double from, double to, double ratio) {
+        return from + (to - from) * Math.max(0, Math.min(1, ratio));
+    }
+}
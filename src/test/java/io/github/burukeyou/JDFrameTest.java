@@ -4,16 +4,24 @@ import io.github.burukeyou.data.Student;
 import io.github.burukeyou.data.UserInfo;
 import io.github.burukeyou.dataframe.iframe.JDFrame;
 import io.github.burukeyou.dataframe.iframe.SDFrame;
+import io.github.burukeyou.dataframe.iframe.index.FrameIndex;
+import io.github.burukeyou.dataframe.iframe.index.SortedFrameIndex;
 import io.github.burukeyou.dataframe.iframe.item.FI2;
 import io.github.burukeyou.dataframe.iframe.item.FI3;
 import io.github.burukeyou.dataframe.iframe.item.FI4;
+import io.github.burukeyou.dataframe.iframe.support.Agg;
+import io.github.burukeyou.dataframe.iframe.support.BloomOption;
+import io.github.burukeyou.dataframe.iframe.support.BloomStats;
 import io.github.burukeyou.dataframe.iframe.support.MaxMin;
 import io.github.burukeyou.dataframe.iframe.window.Sorter;
 import io.github.burukeyou.dataframe.iframe.window.Window;
+import io.github.burukeyou.dataframe.util.HyperLogLog;
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
@@ -151,6 +159,341 @@ public class JDFrameTest {
         frame.show(5);
     }
 
+    @Test
+    public void testJoinByKey() {
+        SDFrame<FI2<String, BigDecimal>> sdf2 = SDFrame.read(studentList).groupBySum(Student::getSchool, Student::getScore);
+
+        // 等价于 select ... from student a join sdf2 b on a.school = b.c1, 按key进行hash连接
+        JDFrame.read(studentList)
+                .join(sdf2, Student::getSchool, FI2::getC1, (a, b) -> {
+                    UserInfo userInfo = new UserInfo();
+                    userInfo.setKey1(a.getSchool());
+                    userInfo.setKey2(b.getC2().intValue());
+                    userInfo.setKey3(String.valueOf(a.getId()));
+                    return userInfo;
+                })
+                .show(20);
+
+        // 内连接按左边的顺序输出, 每个左边行后面跟着它匹配到的右边行, key为null的行不参与连接
+        List<String> inner = JDFrame.read(joinLeftList()).join(joinRightList(), Student::getSchool, FI2::getC1, JDFrameTest::joinName).toLists();
+        Assert.assertEquals(Arrays.asList("a-3", "b-1", "b-4", "c-1", "c-4"), inner);
+
+        // 左连接每个未连接上的左边行只补一次null
+        List<String> left = JDFrame.read(joinLeftList()).leftJoin(joinRightList(), Student::getSchool, FI2::getC1, JDFrameTest::joinName).toLists();
+        Assert.assertEquals(Arrays.asList("a-3", "b-1", "b-4", "c-1", "c-4", "d-null", "e-null"), left);
+
+        // 右连接按右边的顺序输出, 每个未连接上的右边行只补一次null
+        List<String> right = JDFrame.read(joinLeftList()).rightJoin(joinRightList(), Student::getSchool, FI2::getC1, JDFrameTest::joinName).toLists();
+        Assert.assertEquals(Arrays.asList("b-1", "c-1", "null-2", "a-3", "b-4", "c-4"), right);
+    }
+
+    private static List<Student> joinLeftList() {
+        List<Student> list = new ArrayList<>();
+        list.add(new Student(1, "a", "一中", "一年级", 11, new BigDecimal(1)));
+        list.add(new Student(2, "b", "二中", "一年级", 12, new BigDecimal(2)));
+        list.add(new Student(3, "c", "二中", "二年级", 13, new BigDecimal(3)));
+        list.add(new Student(4, "d", "四中", "二年级", 14, new BigDecimal(4)));
+        list.add(new Student(5, "e", null, "三年级", 15, new BigDecimal(5)));
+        return list;
+    }
+
+    private static JDFrame<FI2<String, Integer>> joinRightList() {
+        List<FI2<String, Integer>> list = new ArrayList<>();
+        list.add(new FI2<>("二中", 1));
+        list.add(new FI2<>("五中", 2));
+        list.add(new FI2<>("一中", 3));
+        list.add(new FI2<>("二中", 4));
+        return JDFrame.read(list);
+    }
+
+    private static String joinName(Student a, FI2<String, Integer> b) {
+        return (a == null ? null : a.getName()) + "-" + (b == null ? null : b.getC2());
+    }
+
+    @Test
+    public void testFullJoin() {
+        SDFrame<FI2<String, BigDecimal>> sdf2 = SDFrame.read(studentList).whereNotNull(Student::getLevel).groupBySum(Student::getSchool, Student::getScore);
+
+        // 等价于 select ... from student a full join sdf2 b on a.school = b.c1, 未连接上的行只保留一次
+        JDFrame.read(studentList)
+                .whereNull(Student::getLevel)
+                .fullJoin(sdf2, Student::getSchool, FI2::getC1, (a, b) -> {
+                    UserInfo userInfo = new UserInfo();
+                    userInfo.setKey1(a == null ? null : a.getName());
+                    userInfo.setKey3(b == null ? null : b.getC1());
+                    return userInfo;
+                })
+                .show(20);
+
+        // 先按左边的顺序输出, 再追加未连接上的右边行, 两边未连接上的行都只出现一次
+        List<String> full = JDFrame.read(joinLeftList()).fullJoin(joinRightList(), Student::getSchool, FI2::getC1, JDFrameTest::joinName).toLists();
+        Assert.assertEquals(Arrays.asList("a-3", "b-1", "b-4", "c-1", "c-4", "d-null", "e-null", "null-2"), full);
+
+        // 左边较小时在左边建表, 输出顺序不变
+        List<Student> smallLeft = joinLeftList().subList(3, 5);
+        List<String> smallFull = JDFrame.read(smallLeft).fullJoin(joinRightList(), Student::getSchool, FI2::getC1, JDFrameTest::joinName).toLists();
+        Assert.assertEquals(Arrays.asList("d-null", "e-null", "null-1", "null-2", "null-3", "null-4"), smallFull);
+    }
+
+    @Test
+    public void testMergeJoin() {
+        // groupBySum的结果按school排序后, 两边都已按连接key有序, 可以直接排序合并连接
+        SDFrame<FI2<String, BigDecimal>> sdf2 = SDFrame.read(studentList).groupBySum(Student::getSchool, Student::getScore).sortAsc(FI2::getC1);
+
+        JDFrame.read(studentList)
+                .sortAsc(Student::getSchool)
+                .mergeJoin(sdf2, Student::getSchool, FI2::getC1, (a, b) -> {
+                    UserInfo userInfo = new UserInfo();
+                    userInfo.setKey1(a.getName());
+                    userInfo.setKey3(b.getC1());
+                    return userInfo;
+                })
+                .show(20);
+    }
+
+    @Test
+    public void testParallelJoin() {
+        SDFrame<FI2<String, BigDecimal>> sdf2 = SDFrame.read(studentList).groupBySum(Student::getSchool, Student::getScore);
+
+        // 两边按key的hash分桶后在公共的ForkJoinPool并行连接, 结果顺序和串行的一致
+        JDFrame.read(studentList)
+                .parallel()
+                .leftJoin(sdf2, Student::getSchool, FI2::getC1, (a, b) -> {
+                    UserInfo userInfo = new UserInfo();
+                    userInfo.setKey1(a.getName());
+                    userInfo.setKey3(b == null ? null : b.getC1());
+                    return userInfo;
+                })
+                .show(20);
+    }
+
+    @Test
+    public void testParallelGroup() {
+        // 每个线程先聚合自己的部分数据, 最后再合并
+        JDFrame.read(studentList)
+                .parallel()
+                .groupBySumCount(Student::getSchool, Student::getLevel, Student::getScore)
+                .show();
+    }
+
+    @Test
+    public void testGroupByMaxMin() {
+        // 每个分组只保留当前最大和最小的对象, 不再先收集成分组列表
+        JDFrame.read(studentList).groupByMax(Student::getSchool, Student::getAge).show();
+        JDFrame.read(studentList).groupByMaxMin(Student::getSchool, Student::getLevel, Student::getAge).show();
+        SDFrame.read(studentList).parallel().groupByMaxMinValue(Student::getSchool, Student::getAge).show();
+    }
+
+    @Test
+    public void testApproxCountDistinct() {
+        // 用HyperLogLog估算去重数量, 不用保存所有的值
+        long count = JDFrame.read(studentList).approxCountDistinct(Student::getSchool);
+        long count2 = JDFrame.read(studentList).approxCountDistinct(Student::getName, HyperLogLog.precisionOf(0.01));
+        System.out.println(count + " " + count2);
+        SDFrame.read(studentList).groupByApproxCountDistinct(Student::getSchool, Student::getLevel).show();
+    }
+
+    @Test
+    public void testDistinctBy() {
+        // 按学校hash去重, 保留每个学校第一次出现的学生
+        JDFrame.read(studentList).distinctBy(Student::getSchool).show();
+        System.out.println(SDFrame.read(studentList).countDistinct(Student::getSchool));
+    }
+
+    @Test
+    public void testQuantile() {
+        // 一次遍历用t-digest估算中位数和p99, 不用全排序
+        List<Double> quantile = JDFrame.read(studentList).quantile(Student::getScore, 0.5, 0.99);
+        // 精确分位数, 用选择算法代替全排序
+        List<Double> exact = JDFrame.read(studentList).quantileExact(Student::getScore, 0.5, 0.99);
+        System.out.println(quantile + " " + exact);
+        SDFrame.read(studentList).groupByQuantile(Student::getSchool, Student::getAge, 0.5, 0.9).show();
+        // 每个学校内按年龄排序, 计算截止到当前行的分数中位数
+        JDFrame.read(studentList)
+                .overQuantile(Window.groupBy(Student::getSchool).sortAsc(Student::getAge).roundStartRow2CurrentRow(), Student::getScore, 0.5)
+                .show(30);
+    }
+
+    @Test
+    public void testWhereExists() {
+        SDFrame<FI2<String, BigDecimal>> sdf2 = SDFrame.read(studentList).whereNotNull(Student::getLevel).groupBySum(Student::getSchool, Student::getScore);
+
+        // 等价于 select * from student a where exists (select 1 from sdf2 b where a.school = b.c1)
+        JDFrame.read(studentList).whereExists(sdf2, Student::getSchool, FI2::getC1).show(20);
+
+        // 等价于 select * from student a where not exists (select 1 from sdf2 b where a.school = b.c1)
+        JDFrame.read(studentList).whereNotExists(sdf2, Student::getSchool, FI2::getC1).show(20);
+    }
+
+    @Test
+    public void testBloomFilter() {
+        SDFrame<FI2<String, BigDecimal>> sdf2 = SDFrame.read(studentList).whereNotNull(Student::getLevel).groupBySum(Student::getSchool, Student::getScore);
+
+        // 用小表构建布隆过滤器, 大表中被过滤器拒绝的行不用再查hash表, 每次连接结束后把本次的计数传给监听器
+        List<BloomStats> statsList = new ArrayList<>();
+        BloomOption bloomOption = BloomOption.of(0.01).withListener(statsList::add);
+        JDFrame.read(studentList)
+                .join(sdf2, Student::getSchool, FI2::getC1, (a, b) -> {
+                    UserInfo userInfo = new UserInfo();
+                    userInfo.setKey1(a.getName());
+                    userInfo.setKey3(b.getC1());
+                    return userInfo;
+                }, bloomOption)
+                .show(20);
+
+        // 同一个option用于另一次连接, 计数互不影响
+        long count = JDFrame.read(studentList)
+                .join(JDFrame.read(studentList).whereEq(Student::getSchool, "一中").groupBySum(Student::getSchool, Student::getScore),
+                        Student::getSchool, FI2::getC1, (a, b) -> a, bloomOption)
+                .count();
+        Assert.assertEquals(3, count);
+        Assert.assertEquals(2, statsList.size());
+        System.out.println(statsList);
+        Assert.assertEquals(studentList.size(), statsList.get(0).getProbeCount());
+        Assert.assertEquals(0, statsList.get(0).getRejectCount());
+        Assert.assertEquals(studentList.size(), statsList.get(1).getProbeCount());
+        Assert.assertTrue(statsList.get(1).getRejectCount() <= studentList.size() - count);
+    }
+
+    @Test
+    public void testCreateIndex() {
+        // 同一个函数实例创建索引后, whereEq和whereIn会走索引而不用全表扫描
+        Function<Student, String> school = Student::getSchool;
+        JDFrame<Student> frame = JDFrame.read(new ArrayList<>(studentList));
+        FrameIndex<String, Student> index = frame.createIndex(school);
+        System.out.println(index.keys());
+
+        frame.whereEq(school, "一中").show();
+        frame.append(new Student("一中"));
+        frame.whereIn(school, Arrays.asList("一中", "二中")).show();
+
+        // 直接传索引, 不依赖函数实例是否相同
+        Assert.assertEquals(4, frame.whereEq(index, "一中").count());
+        Assert.assertEquals(6, frame.whereIn(index, Arrays.asList("一中", "二中")).count());
+        Assert.assertEquals(frame.whereEq(Student::getSchool, "一中").toLists(), frame.whereEq(index, "一中").toLists());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIndexOfOtherFrame() {
+        FrameIndex<String, Student> index = JDFrame.read(new ArrayList<>(studentList)).createIndex(Student::getSchool);
+        JDFrame.read(new ArrayList<>(studentList)).whereEq(index, "一中");
+    }
+
+    @Test
+    public void testIndexAfterWindow() {
+        // 窗口函数对共享的数据原地排序后, 原Frame的索引会失效并在下次查询时重建
+        Function<Student, String> school = Student::getSchool;
+        JDFrame<Student> frame = JDFrame.read(new ArrayList<>(studentList));
+        frame.createIndex(school);
+        frame.window(Window.sortDescBy(Student::getId)).overRank();
+        List<Student> result = frame.whereEq(school, "一中").toLists();
+        Assert.assertFalse(result.isEmpty());
+        result.forEach(e -> Assert.assertEquals("一中", e.getSchool()));
+    }
+
+    @Test
+    public void testCreateSortedIndex() {
+        // 同一个函数实例创建有序索引后, 范围筛选用二分查找
+        Function<Student, Integer> age = Student::getAge;
+        JDFrame<Student> frame = JDFrame.read(new ArrayList<>(studentList));
+        frame.createSortedIndex(age);
+
+        frame.whereBetween(age, 3, 11).show();
+        frame.whereGt(age, 11).show();
+        frame.whereNotBetweenN(age, 3, 11).show();
+
+        // 直接传索引, 不依赖函数实例是否相同
+        JDFrame<Student> other = JDFrame.read(new ArrayList<>(studentList));
+        SortedFrameIndex<Integer, Student> index = other.createSortedIndex(Student::getAge);
+        Assert.assertEquals(other.whereBetween(Student::getAge, 12, 14).toLists(), other.whereBetween(index, 12, 14).toLists());
+        Assert.assertEquals(other.whereNotBetween(Student::getAge, 12, 14).toLists(), other.whereNotBetween(index, 12, 14).toLists());
+        Assert.assertEquals(other.whereGt(Student::getAge, 13).toLists(), other.whereGt(index, 13).toLists());
+        Assert.assertEquals(other.whereGe(Student::getAge, 13).toLists(), other.whereGe(index, 13).toLists());
+        Assert.assertEquals(other.whereLt(Student::getAge, 13).toLists(), other.whereLt(index, 13).toLists());
+        Assert.assertEquals(other.whereLe(Student::getAge, 13).toLists(), other.whereLe(index, 13).toLists());
+        Assert.assertEquals(7, other.whereGe(index, 14).count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSortedIndexOfOtherFrame() {
+        // 传入其他Frame的索引时不会退化为全表扫描, 说明走的是索引
+        SortedFrameIndex<Integer, Student> index = JDFrame.read(new ArrayList<>(studentList)).createSortedIndex(Student::getAge);
+        JDFrame.read(new ArrayList<>(studentList)).whereBetween(index, 3, 11);
+    }
+
+    @Test
+    public void testSortedIndexAfterWindow() {
+        // 窗口函数原地排序不改变行数, 由原Frame通知有序索引失效
+        Function<Student, Integer> age = Student::getAge;
+        JDFrame<Student> frame = JDFrame.read(new ArrayList<>(studentList));
+        frame.createSortedIndex(age);
+        frame.window(Window.sortDescBy(Student::getId)).overRank();
+        frame.whereGt(age, 11).forEachDo(e -> Assert.assertTrue(e.getAge() > 11));
+        frame.whereBetween(age, 3, 11).forEachDo(e -> Assert.assertTrue(e.getAge() >= 3 && e.getAge() <= 11));
+        Assert.assertEquals(studentList.stream().filter(e -> e.getAge() != null && e.getAge() > 11).count(), frame.whereGt(age, 11).count());
+    }
+
+    @Test
+    public void testCutFirstEmpty() {
+        // 空Frame截取不校验n, 与JDFrame一致
+        Assert.assertEquals(0, SDFrame.read(new ArrayList<Student>()).cutFirst(0).count());
+        Assert.assertEquals(0, JDFrame.read(new ArrayList<Student>()).cutFirst(0).count());
+        Assert.assertEquals(0, SDFrame.read(studentList).whereEq(Student::getSchool, "none").cutFirst(0).count());
+    }
+
+    @Test
+    public void testLazyPlan() {
+        // SDFrame的操作只在终止操作时执行, 相邻的筛选合并成一次遍历
+        SDFrame<Student> frame = SDFrame.read(studentList)
+                .whereNotNull(Student::getAge)
+                .whereGt(Student::getAge, 3)
+                .sortDesc(Student::getAge)
+                .cutFirst(3);
+        System.out.println(frame.count());
+        frame.show();
+    }
+
+    @Test
+    public void testTopN() {
+        // 只保留N个元素的堆, 不对全部数据排序
+        JDFrame.read(studentList).topN(Student::getAge, 3).show();
+        SDFrame.read(studentList).bottomN(Student::getAge, 3).show();
+
+        // SDFrame的排序后紧跟cutFirst也会用堆
+        SDFrame.read(studentList).sortDesc(Student::getAge).cutFirst(3).show();
+    }
+
+    @Test
+    public void testCutFirstRank() {
+        // 排名相同的数据都会保留
+        JDFrame.read(studentList).cutFirstRank(Sorter.sortDescBy(Student::getAge), 2).show();
+
+        // 每个学校年龄排名前2的学生
+        SDFrame.read(studentList).cutFirstRank(Window.groupBy(Student::getSchool).sortDesc(Student::getAge), 2).show();
+    }
+
+    @Test
+    public void testSumPrimitive() {
+        JDFrame<Student> frame = JDFrame.read(studentList).whereNotNull(Student::getAge);
+        // 整数列按long累加, 结果和sum一致
+        System.out.println(frame.sum(Student::getAge));
+        System.out.println(frame.sumLong(Student::getAge));
+        System.out.println(frame.sumDouble(Student::getAge));
+        System.out.println(frame.avgDouble(Student::getAge));
+    }
+
+    @Test
+    public void testGroupByAgg() {
+        // 一次遍历同时计算每个学校的总分、人数、平均年龄
+        JDFrame.read(studentList)
+                .groupByAgg(Student::getSchool, Agg.sum(Student::getScore), Agg.count(), Agg.avg(Student::getAge))
+                .show();
+
+        SDFrame.read(studentList)
+                .groupByAggs(Student::getSchool, Arrays.asList(Agg.max(Student::getAge), Agg.min(Student::getAge), Agg.count()))
+                .show();
+    }
+
     @Test
     public void testComun() {
          SDFrame<Student> students = SDFrame.read(studentList).mapPercent(Student::getScore,Student::setScore,2);
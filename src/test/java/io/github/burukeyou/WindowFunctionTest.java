@@ -3,12 +3,29 @@ package io.github.burukeyou;
 import io.github.burukeyou.data.WebPvDto;
 import io.github.burukeyou.dataframe.iframe.JDFrame;
 import io.github.burukeyou.dataframe.iframe.SDFrame;
+import io.github.burukeyou.dataframe.iframe.item.FI2;
 import io.github.burukeyou.dataframe.iframe.window.Window;
 import io.github.burukeyou.dataframe.iframe.window.round.Range;
+import io.github.burukeyou.dataframe.iframe.window.round.WindowRange;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Collectors;
 
 public class WindowFunctionTest {
 
@@ -277,6 +294,275 @@ public class WindowFunctionTest {
                 .show(30);
     }
 
+    /**
+     *  各窗口分区在并行池中并发计算, 结果仍按分区顺序拼接
+     */
+    @Test
+    public void testParallelWindow(){
+        JDFrame.read(dataList)
+                .parallel()
+                .window(Window.groupBy(WebPvDto::getType).sortAsc(WebPvDto::getScore))
+                .overLagS(WebPvDto::setValue, WebPvDto::getPvCount, 1)
+                .show(30);
+    }
+
+    /**
+     *  按分区字段和窗口排序整体排序一次, 扫描相邻行得到分区, 分区按分区字段升序输出
+     */
+    @Test
+    public void testPartitionBySort(){
+        SDFrame.read(dataList)
+                .window(Window.groupBy(WebPvDto::getType).sortDesc(WebPvDto::getPvCount).partitionBySort())
+                .overRank()
+                .show(30);
+    }
+
+    /**
+     *  long、double类型的窗口求和、平均值, 用基本类型累加不转换成BigDecimal, 可开启补偿求和
+     */
+    @Test
+    public void testOverSumDouble(){
+        Window<WebPvDto> window = Window.groupBy(WebPvDto::getType).sortAsc(WebPvDto::getScore).roundBefore2CurrentRow(2);
+        JDFrame.read(dataList).overSumLong(window, WebPvDto::getPvCount).show(30);
+        JDFrame.read(dataList).overSumDouble(window, WebPvDto::getPvCount, true).show(30);
+        SDFrame.read(dataList).window(window).overAvgDouble(WebPvDto::getPvCount).show(30);
+    }
+
+    /**
+     *  long类型的窗口平均值按long精确求和, 超过2的53次方时不会因为转换成double丢失精度
+     */
+    @Test
+    public void testOverAvgLong(){
+        List<WebPvDto> list = new ArrayList<>();
+        list.add(new WebPvDto("a",0,1));
+        list.add(new WebPvDto("a",1,1));
+        list.add(new WebPvDto("a",2,1));
+        long big = 1L << 53;
+        List<Double> avgList = JDFrame.read(list)
+                .overAvgLong(Window.sortAscBy(WebPvDto::getScore), e -> e.getScore() == 0 ? big : 1L)
+                .map(FI2::getC2)
+                .toLists();
+        Assert.assertEquals(Arrays.asList((big + 2) / 3.0, (big + 2) / 3.0, (big + 2) / 3.0), avgList);
+
+        List<Double> slidingList = SDFrame.read(list)
+                .window(Window.sortAscBy(WebPvDto::getScore).roundBefore2CurrentRow(1))
+                .overAvgLong(e -> e.getScore() == 0 ? big : 1L)
+                .map(FI2::getC2)
+                .toLists();
+        Assert.assertEquals(Arrays.asList((double) big, (big + 1) / 2.0, 1.0), slidingList);
+    }
+
+    /**
+     *  long类型的窗口求和溢出时抛出异常, 和sumLong一致
+     */
+    @Test(expected = ArithmeticException.class)
+    public void testOverSumLongOverflow(){
+        Window<WebPvDto> window = Window.groupBy(WebPvDto::getType).sortAsc(WebPvDto::getScore).roundBefore2CurrentRow(2);
+        JDFrame.read(dataList).overSumLong(window, e -> Long.MAX_VALUE);
+    }
+
+    /**
+     *  自定义的窗口范围不随当前行逐行移动时, 每个分区用前缀和、稀疏表按范围直接查询
+     *  如每3行一组的滚动窗口
+     */
+    @Test
+    public void testOverRangeQuery(){
+        WindowRange start = new WindowRange() {
+            @Override
+            public <V> Integer getStartIndex(Integer currentRowIndex, List<V> windowList) {
+                return currentRowIndex - currentRowIndex % 3;
+            }
+
+            @Override
+            public <V> Integer getEndIndex(Integer currentRowIndex, List<V> windowList) {
+                return null;
+            }
+        };
+        WindowRange end = new WindowRange() {
+            @Override
+            public <V> Integer getStartIndex(Integer currentRowIndex, List<V> windowList) {
+                return null;
+            }
+
+            @Override
+            public <V> Integer getEndIndex(Integer currentRowIndex, List<V> windowList) {
+                return currentRowIndex - currentRowIndex % 3 + 2;
+            }
+        };
+        Window<WebPvDto> window = Window.groupBy(WebPvDto::getType).sortAsc(WebPvDto::getScore).roundBetween(start, end);
+        JDFrame.read(dataList).overSum(window, WebPvDto::getPvCount).show(30);
+        JDFrame.read(dataList).overMaxValue(window, WebPvDto::getPvCount).show(30);
+
+        // 分区c含有null值, 分区b只有4行, 每3行一组的窗口在分区末尾会超出分区
+        List<WebPvDto> list = new ArrayList<>(dataList);
+        list.add(new WebPvDto("c",1,null));
+        list.add(new WebPvDto("c",2,3));
+        list.add(new WebPvDto("c",3,null));
+        list.add(new WebPvDto("c",4,null));
+        list.add(new WebPvDto("c",5,8));
+        assertRangeQuery(list, start, end);
+        // 窗口两端都可能超出分区, 且不随当前行单调移动
+        assertRangeQuery(list, startRange(i -> i % 2 == 0 ? i - 3 : i), endRange(i -> i % 2 == 0 ? i : i + 4));
+        // 窗口可能为空
+        assertRangeQuery(list, startRange(i -> i - i % 2 + 1), endRange(i -> i - i % 2 + 1 - i % 3));
+    }
+
+    /**
+     * 按范围查询的overSum、overMaxValue和逐行扫描窗口的结果一致
+     */
+    private static void assertRangeQuery(List<WebPvDto> list, WindowRange start, WindowRange end) {
+        Window<WebPvDto> window = Window.groupBy(WebPvDto::getType).sortAsc(WebPvDto::getScore).roundBetween(start, end);
+        Map<WebPvDto, BigDecimal> sumMap = new IdentityHashMap<>();
+        JDFrame.read(list).overSum(window, WebPvDto::getPvCount).forEachDo(e -> sumMap.put(e.getC1(), e.getC2()));
+        Map<WebPvDto, Integer> maxMap = new IdentityHashMap<>();
+        JDFrame.read(list).overMaxValue(window, WebPvDto::getPvCount).forEachDo(e -> maxMap.put(e.getC1(), e.getC2()));
+        Assert.assertEquals(list.size(), sumMap.size());
+        Assert.assertEquals(list.size(), maxMap.size());
+
+        Map<String, List<WebPvDto>> partitionMap = list.stream().collect(Collectors.groupingBy(WebPvDto::getType));
+        for (List<WebPvDto> partition : partitionMap.values()) {
+            partition.sort(Comparator.comparing(WebPvDto::getScore));
+            for (int i = 0; i < partition.size(); i++) {
+                int from = Math.max(start.getStartIndex(i, partition), 0);
+                int to = Math.min(end.getEndIndex(i, partition), partition.size() - 1);
+                BigDecimal sum = BigDecimal.ZERO;
+                Integer max = null;
+                for (int j = from; j <= to; j++) {
+                    Integer pvCount = partition.get(j).getPvCount();
+                    if (pvCount != null) {
+                        sum = sum.add(new BigDecimal(pvCount));
+                        max = max == null ? pvCount : Math.max(max, pvCount);
+                    }
+                }
+                WebPvDto row = partition.get(i);
+                Assert.assertEquals(0, sum.compareTo(sumMap.get(row)));
+                Assert.assertEquals(max, maxMap.get(row));
+            }
+        }
+    }
+
+    private static WindowRange startRange(IntUnaryOperator operator) {
+        return new WindowRange() {
+            @Override
+            public <V> Integer getStartIndex(Integer currentRowIndex, List<V> windowList) {
+                return operator.applyAsInt(currentRowIndex);
+            }
+
+            @Override
+            public <V> Integer getEndIndex(Integer currentRowIndex, List<V> windowList) {
+                return null;
+            }
+        };
+    }
+
+    private static WindowRange endRange(IntUnaryOperator operator) {
+        return new WindowRange() {
+            @Override
+            public <V> Integer getStartIndex(Integer currentRowIndex, List<V> windowList) {
+                return null;
+            }
+
+            @Override
+            public <V> Integer getEndIndex(Integer currentRowIndex, List<V> windowList) {
+                return operator.applyAsInt(currentRowIndex);
+            }
+        };
+    }
+
+    /**
+     *  按排序字段值的范围开窗, 等价于sql的 RANGE BETWEEN 2 PRECEDING AND CURRENT ROW
+     *  如score在当前行score减2到当前行之间的行求和, 时间字段可用Duration指定范围
+     */
+    @Test
+    public void testOverValueRange(){
+        Window<WebPvDto> window = Window.groupBy(WebPvDto::getType)
+                .sortAsc(WebPvDto::getScore)
+                .roundBetween(Range.BEFORE_VALUE(2), Range.CURRENT_ROW);
+        JDFrame.read(dataList).overSum(window, WebPvDto::getPvCount).show(30);
+
+        // 排序值为1,2,2,3,5, 窗口值依次为1,2,4,8,16. 边界值本身在窗口内, 排序值相同的行共享同一个窗口
+        List<Integer> expected = Arrays.asList(1, 7, 7, 15, 24);
+        Assert.assertEquals(expected, valueRangeSum(rangeData(1, 2, 2, 3, 5), true, Range.BEFORE_VALUE(2), Range.AFTER_VALUE(0)));
+        Assert.assertEquals(expected, valueRangeSum(rangeData(1L, 2L, 2L, 3L, 5L), true, Range.BEFORE_VALUE(2L), Range.AFTER_VALUE(0L)));
+        Assert.assertEquals(expected, valueRangeSum(rangeData(1.0, 2.0, 2.0, 3.0, 5.0), true, Range.BEFORE_VALUE(2.0), Range.AFTER_VALUE(0)));
+        // 降序时之前的行是排序值更大的行, 排序值为5,3,2,2,1, 窗口值依次为1,2,4,8,16
+        Assert.assertEquals(Arrays.asList(1, 3, 14, 14, 30),
+                valueRangeSum(rangeData(5, 3, 2, 2, 1), false, Range.BEFORE_VALUE(2), Range.AFTER_VALUE(0)));
+
+        // 极大的距离等价于不限制边界, 计算边界值时不会溢出
+        Assert.assertEquals(Arrays.asList(1, 3, 7), valueRangeSum(rangeData(-5L, -1L, 3L), true, Range.BEFORE_VALUE(Long.MAX_VALUE), Range.AFTER_VALUE(0)));
+        Assert.assertEquals(Arrays.asList(3, 6, 4), valueRangeSum(rangeData(Long.MIN_VALUE, -1L, 3L), true, Range.BEFORE_VALUE(1L), Range.AFTER_VALUE(Long.MAX_VALUE)));
+        Assert.assertEquals(Arrays.asList(7, 6, 4), valueRangeSum(rangeData(1, 5, 9), true, Range.BEFORE_VALUE(0), Range.AFTER_VALUE(Long.MAX_VALUE)));
+        Assert.assertEquals(Arrays.asList(1, 3, 7), valueRangeSum(rangeData(9, 5, -1), false, Range.BEFORE_VALUE(Long.MAX_VALUE), Range.AFTER_VALUE(0)));
+
+        // 时间类型的排序值按Period、Duration开窗
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        List<LocalDate> days = Arrays.asList(day, day.plusDays(1), day.plusDays(1), day.plusDays(2), day.plusDays(4));
+        Assert.assertEquals(expected, valueRangeSum(rangeData(days), true, Range.BEFORE_VALUE(Period.ofDays(2)), Range.AFTER_VALUE(Period.ZERO)));
+
+        LocalDateTime time = day.atStartOfDay();
+        List<LocalDateTime> times = Arrays.asList(time, time.plusHours(1), time.plusHours(1), time.plusHours(2), time.plusHours(4));
+        Assert.assertEquals(expected, valueRangeSum(rangeData(times), true, Range.BEFORE_VALUE(Duration.ofHours(2)), Range.AFTER_VALUE(Duration.ZERO)));
+
+        List<Date> dates = days.stream().map(e -> Date.from(e.atStartOfDay(ZoneId.systemDefault()).toInstant())).collect(Collectors.toList());
+        Assert.assertEquals(expected, valueRangeSum(rangeData(dates), true, Range.BEFORE_VALUE(Period.ofDays(2)), Range.AFTER_VALUE(Period.ZERO)));
+        Assert.assertEquals(expected, valueRangeSum(rangeData(dates), true, Range.BEFORE_VALUE(Duration.ofDays(2)), Range.AFTER_VALUE(Duration.ZERO)));
+
+        // 跨月的Period按日历计算
+        List<LocalDate> months = Arrays.asList(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 1));
+        Assert.assertEquals(Arrays.asList(1, 3, 6), valueRangeSum(rangeData(months), true, Range.BEFORE_VALUE(Period.ofMonths(1)), Range.AFTER_VALUE(Period.ZERO)));
+    }
+
+    /**
+     *  负数的范围距离在开窗时拒绝
+     */
+    @Test
+    public void testOverValueRangeNegative(){
+        List<WindowRange> rangeList = Arrays.asList(
+                Range.BEFORE_VALUE(-1),
+                Range.AFTER_VALUE(new BigDecimal("-0.5")),
+                Range.BEFORE_VALUE(Duration.ofHours(-1)),
+                Range.AFTER_VALUE(Period.ofDays(-1)),
+                Range.BEFORE_VALUE(Period.of(0, 1, -1)));
+        for (WindowRange range : rangeList) {
+            try {
+                Window.sortAscBy(WebPvDto::getScore).roundBetween(range, Range.END_ROW);
+                Assert.fail("negative distance is accepted as start: " + range);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+            try {
+                Window.sortAscBy(WebPvDto::getScore).roundBetween(Range.START_ROW, range);
+                Assert.fail("negative distance is accepted as end: " + range);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @SafeVarargs
+    private static <V> List<FI2<V, Integer>> rangeData(V... keys) {
+        return rangeData(Arrays.asList(keys));
+    }
+
+    /**
+     * 第i行的窗口值为2的i次方, 窗口和可以看出包含了哪些行
+     */
+    private static <V> List<FI2<V, Integer>> rangeData(List<V> keys) {
+        List<FI2<V, Integer>> list = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            list.add(new FI2<>(keys.get(i), 1 << i));
+        }
+        return list;
+    }
+
+    private static <V extends Comparable<? super V>> List<Integer> valueRangeSum(List<FI2<V, Integer>> list, boolean asc, WindowRange start, WindowRange end) {
+        Function<FI2<V, Integer>, V> sortField = FI2::getC1;
+        Window<FI2<V, Integer>> window = asc ? Window.sortAscBy(sortField) : Window.sortDescBy(sortField);
+        window.roundBetween(start, end);
+        return JDFrame.read(list).overSum(window, FI2::getC2).map(e -> e.getC2().intValue()).toLists();
+    }
+
     public static void main(String[] args) {
         SDFrame.read(dataList).cutPage(2, 3).show(30);
     }